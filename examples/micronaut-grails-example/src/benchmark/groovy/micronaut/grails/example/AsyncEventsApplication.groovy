@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example
+
+import com.agorapulse.micronaut.grails.MicronautGrailsApp
+import com.agorapulse.micronaut.grails.events.MicronautEventBridge
+import groovy.transform.CompileStatic
+import org.springframework.context.ConfigurableApplicationContext
+import org.springframework.context.annotation.Bean
+
+/**
+ * Strict application which forwards the benchmark events between Spring and Micronaut asynchronously in batches.
+ */
+@CompileStatic
+class AsyncEventsApplication extends EventsApplication {
+
+    static ConfigurableApplicationContext context
+
+    static void main(String[] args) {
+        context = MicronautGrailsApp.run(AsyncEventsApplication, args)
+    }
+
+    @Bean
+    @Override
+    MicronautEventBridge benchmarkEventBridge() {
+        return super.benchmarkEventBridge().async()
+    }
+
+}
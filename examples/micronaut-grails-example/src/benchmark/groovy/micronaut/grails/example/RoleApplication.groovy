@@ -0,0 +1,48 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example
+
+import com.agorapulse.micronaut.grails.BeanExposure
+import com.agorapulse.micronaut.grails.MicronautGrailsApp
+import groovy.transform.CompileStatic
+import org.springframework.context.ConfigurableApplicationContext
+
+/**
+ * Strict application running as a worker node which does not load the Micronaut HTTP clients.
+ */
+@CompileStatic
+class RoleApplication extends Application {
+
+    static ConfigurableApplicationContext context
+
+    static void main(String[] args) {
+        if (!System.getProperty(MicronautGrailsApp.ROLE_PROPERTY)) {
+            System.setProperty(MicronautGrailsApp.ROLE_PROPERTY, 'worker')
+        }
+        context = MicronautGrailsApp.run(RoleApplication, args)
+    }
+
+    final Map<String, BeanExposure> roles = [
+        web   : BeanExposure.all(),
+        worker: BeanExposure.builder()
+            .excludePackage('io.micronaut.http.client')
+            .excludeStereotype('io.micronaut.http.client.annotation.Client')
+            .build(),
+    ]
+
+}
@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import com.agorapulse.micronaut.grails.events.EventBridgeDispatcher
+import com.agorapulse.micronaut.grails.events.EventBridgeMetrics
+import groovy.json.JsonOutput
+import groovy.transform.CompileStatic
+import io.micronaut.context.ApplicationContext
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import org.springframework.context.ConfigurableApplicationContext
+import org.springframework.context.PayloadApplicationEvent
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Boots a single variant of the example application inside the current JVM, publishes the benchmark events
+ * in both Spring and Micronaut contexts and writes the throughput of the event bridge and its metrics as JSON
+ * into the file given as the second argument.
+ *
+ * The probe is meant to be executed in a fresh JVM by {@link EventBenchmark}.
+ */
+@CompileStatic
+class EventProbe {
+
+    private static final int WARM_UP_RATIO = 10
+    private static final long DELIVERY_TIMEOUT_MILLIS = 60_000
+
+    static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ${EventProbe.simpleName} <application class> <output file>")
+            System.exit(2)
+        }
+
+        Class<?> applicationClass = Class.forName(args[0])
+        File output = new File(args[1])
+        int events = Integer.getInteger('benchmark.events.count', 100_000)
+
+        applicationClass.getMethod('main', String[]).invoke(null, [new String[0]] as Object[])
+        ConfigurableApplicationContext context = StartupProbe.getContext(applicationClass)
+
+        ApplicationContext micronautContext = context.getBean(MicronautContextHolder).context
+        AtomicLong micronautReceived = micronautContext.getBean(SpringBenchmarkEventCounter).count
+        AtomicLong springReceived = new AtomicLong()
+        context.addApplicationListener({ ApplicationEvent event ->
+            if (event instanceof PayloadApplicationEvent && ((PayloadApplicationEvent) event).payload instanceof MicronautBenchmarkEvent) {
+                springReceived.incrementAndGet()
+            }
+        } as ApplicationListener<ApplicationEvent>)
+
+        int warmUp = events.intdiv(WARM_UP_RATIO).intValue()
+        publish(warmUp, micronautReceived) { int i -> context.publishEvent(new SpringBenchmarkEvent(i)) }
+        publish(warmUp, springReceived) { int i -> micronautContext.publishEvent(new MicronautBenchmarkEvent(i)) }
+
+        long toMicronautMillis = publish(events, micronautReceived) { int i -> context.publishEvent(new SpringBenchmarkEvent(i)) }
+        long toSpringMillis = publish(events, springReceived) { int i -> micronautContext.publishEvent(new MicronautBenchmarkEvent(i)) }
+
+        EventBridgeMetrics metrics = context.getBean(EventBridgeDispatcher).metrics
+
+        Map<String, Object> result = [
+            application               : applicationClass.name,
+            events                    : events,
+            toMicronautEventsPerSecond: Math.round(events * 1000d / toMicronautMillis),
+            toSpringEventsPerSecond   : Math.round(events * 1000d / toSpringMillis),
+            overflowed                : metrics.overflowed,
+            maxQueueSize              : metrics.maxQueueSize,
+            batches                   : metrics.batches,
+            averageBatchSize          : Math.round(metrics.averageBatchSize),
+        ] as Map<String, Object>
+
+        output.parentFile.mkdirs()
+        output.text = JsonOutput.toJson(result)
+
+        context.close()
+        System.exit(0)
+    }
+
+    /**
+     * @return milliseconds elapsed until all the events were received
+     */
+    private static long publish(int events, AtomicLong received, Closure<?> publisher) {
+        long expected = received.get() + events
+        long started = System.nanoTime()
+
+        for (int i = 0; i < events; i++) {
+            publisher.call(i)
+        }
+
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(DELIVERY_TIMEOUT_MILLIS)
+        while (received.get() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Only ${received.get() - expected + events} of $events events received in time")
+            }
+            Thread.sleep(1)
+        }
+
+        return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import com.agorapulse.micronaut.grails.MicronautBeanHandle
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import com.agorapulse.micronaut.grails.example.DirectlyInjected
+import groovy.json.JsonOutput
+import groovy.transform.CompileStatic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.scheduling.TaskExecutors
+import org.springframework.context.ConfigurableApplicationContext
+
+import java.util.concurrent.ExecutorService
+
+/**
+ * Boots the example application inside the current JVM and compares the cost of looking up Micronaut beans
+ * using <code>getBean</code> with the handles obtained from {@link MicronautContextHolder#handle(Class)}.
+ *
+ * Configured using the following system properties:
+ * <ul>
+ *     <li><code>benchmark.handle.operations</code> - number of lookups measured in each round</li>
+ *     <li><code>benchmark.handle.rounds</code> - number of measured rounds, the median is reported</li>
+ *     <li><code>benchmark.output</code> - directory for the reports</li>
+ * </ul>
+ */
+@CompileStatic
+class HandleBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5
+
+    // consumes the results of the lookups so they cannot be eliminated by the JIT compiler
+    @SuppressWarnings('UnusedPrivateField')
+    private static volatile int sink
+
+    static void main(String[] args) {
+        int operations = Integer.getInteger('benchmark.handle.operations', 1_000_000)
+        int rounds = Integer.getInteger('benchmark.handle.rounds', 10)
+        File output = new File(System.getProperty('benchmark.output', 'build/reports/benchmark/handle'))
+        output.mkdirs()
+
+        Class<?> applicationClass = Class.forName('micronaut.grails.example.Application')
+        applicationClass.getMethod('main', String[]).invoke(null, [new String[0]] as Object[])
+        ConfigurableApplicationContext context = StartupProbe.getContext(applicationClass)
+
+        MicronautContextHolder holder = context.getBean(MicronautContextHolder)
+        ApplicationContext micronautContext = holder.context
+
+        MicronautBeanHandle<DirectlyInjected> singletonHandle = holder.handle(DirectlyInjected)
+        MicronautBeanHandle<ExecutorService> qualifiedHandle = holder.handle(ExecutorService, Qualifiers.byName(TaskExecutors.IO))
+
+        // each case runs its own loop calling the lookup directly so only the lookup itself is measured
+        Map<String, Closure<Long>> cases = [
+            'getBean(type)'           : { measureGetBean(micronautContext, operations) } as Closure<Long>,
+            'handle(type)'            : { measureHandle(singletonHandle, operations) } as Closure<Long>,
+            'getBean(type, qualifier)': { measureQualifiedGetBean(micronautContext, operations) } as Closure<Long>,
+            'handle(type, qualifier)' : { measureHandle(qualifiedHandle, operations) } as Closure<Long>,
+        ]
+
+        Map<String, Map<String, Number>> summary = cases.collectEntries { String name, Closure<Long> round ->
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                round.call()
+            }
+            List<Number> samples = (1..rounds).collect { round.call() as Number }
+            [(name): StartupBenchmark.summarize(samples)]
+        } as Map<String, Map<String, Number>>
+
+        new File(output, 'handle.json').text = JsonOutput.prettyPrint(JsonOutput.toJson(operations: operations, rounds: rounds, summary: summary))
+
+        File report = new File(output, 'handle.md')
+        report.text = render(summary, operations, rounds, System.getProperty('java.version'))
+
+        println report.text
+        println "Report written to $report.canonicalPath"
+
+        context.close()
+        System.exit(0)
+    }
+
+    private static long measureGetBean(ApplicationContext context, int operations) {
+        int hash = 0
+        long started = System.nanoTime()
+        for (int i = 0; i < operations; i++) {
+            hash += System.identityHashCode(context.getBean(DirectlyInjected))
+        }
+        return finish(started, hash, operations)
+    }
+
+    private static long measureQualifiedGetBean(ApplicationContext context, int operations) {
+        int hash = 0
+        long started = System.nanoTime()
+        for (int i = 0; i < operations; i++) {
+            hash += System.identityHashCode(context.getBean(ExecutorService, Qualifiers.byName(TaskExecutors.IO)))
+        }
+        return finish(started, hash, operations)
+    }
+
+    private static long measureHandle(MicronautBeanHandle<?> handle, int operations) {
+        int hash = 0
+        long started = System.nanoTime()
+        for (int i = 0; i < operations; i++) {
+            hash += System.identityHashCode(handle.get())
+        }
+        return finish(started, hash, operations)
+    }
+
+    /**
+     * @return picoseconds per lookup to keep the precision in integer reports
+     */
+    private static long finish(long started, int hash, int operations) {
+        long elapsed = System.nanoTime() - started
+        sink = hash
+        return (elapsed * 1000).intdiv(operations).longValue()
+    }
+
+    private static String render(Map<String, Map<String, Number>> summary, int operations, int rounds, String javaVersion) {
+        StringWriter writer = new StringWriter()
+        PrintWriter out = new PrintWriter(writer)
+
+        out.println('# Handle Benchmark')
+        out.println()
+        out.println("Picoseconds per lookup, medians of $rounds round(s) of $operations lookups running on Java $javaVersion, minimum and maximum in brackets.")
+        out.println()
+        out.println('| Lookup | Time |')
+        out.println('|---|---:|')
+
+        summary.each { String name, Map<String, Number> values ->
+            out.println("| $name | ${values.median} (${values.min} - ${values.max}) |")
+        }
+
+        out.flush()
+        return writer.toString()
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import groovy.json.JsonOutput
+import groovy.transform.CompileStatic
+
+/**
+ * Boots each variant of the example application in fresh JVMs using {@link LoadProbe}, simulates blocking I/O
+ * on the Micronaut <code>io</code> executor and writes a comparative report into the output directory.
+ *
+ * Configured using the following system properties:
+ * <ul>
+ *     <li><code>benchmark.variants</code> - comma separated list of variants, see {@link #VARIANTS}</li>
+ *     <li><code>benchmark.iterations</code> - number of fresh JVMs started for each variant</li>
+ *     <li><code>benchmark.load.tasks</code> - number of blocking tasks submitted at once</li>
+ *     <li><code>benchmark.load.blockMillis</code> - how long each of the tasks blocks</li>
+ *     <li><code>benchmark.jvmArgs</code> - space separated JVM arguments passed to each probe</li>
+ *     <li><code>benchmark.output</code> - directory for the reports and the probe logs</li>
+ * </ul>
+ *
+ * The <code>virtual</code> variant only differs from the <code>strict</code> variant when running on Java 21 or newer.
+ */
+@CompileStatic
+class LoadBenchmark {
+
+    static final Map<String, String> VARIANTS = [
+        strict : 'micronaut.grails.example.Application',
+        virtual: 'micronaut.grails.example.VirtualThreadsApplication',
+    ].asImmutable()
+
+    static final List<String> METRICS = [
+        'tasksPerSecond',
+        'elapsedMillis',
+        'threadsBefore',
+        'peakThreads',
+    ].asImmutable()
+
+    static void main(String[] args) {
+        List<String> variants = System.getProperty('benchmark.variants', VARIANTS.keySet().join(',')).split(',')*.trim()
+        int iterations = Integer.getInteger('benchmark.iterations', 3)
+        List<String> jvmArgs = System.getProperty('benchmark.jvmArgs', '').split(/\s+/).findAll() as List<String>
+        jvmArgs.add("-Dbenchmark.load.tasks=${Integer.getInteger('benchmark.load.tasks', 2000)}".toString())
+        jvmArgs.add("-Dbenchmark.load.blockMillis=${Long.getLong('benchmark.load.blockMillis', 50)}".toString())
+        File output = new File(System.getProperty('benchmark.output', 'build/reports/benchmark/load'))
+        output.mkdirs()
+
+        Map<String, List<Map<String, Object>>> samples = [:]
+
+        for (String variant in variants) {
+            String applicationClass = VARIANTS[variant]
+            if (!applicationClass) {
+                throw new IllegalArgumentException("Unknown variant $variant. Known variants: ${VARIANTS.keySet()}")
+            }
+
+            List<Map<String, Object>> runs = []
+            for (int i = 0; i < iterations; i++) {
+                println "Loading $variant (${i + 1}/$iterations)"
+                runs.add(StartupBenchmark.probe(LoadProbe, applicationClass, jvmArgs, new File(output, "$variant-${i}")))
+            }
+            samples[variant] = runs
+        }
+
+        Map<String, Map<String, Map<String, Number>>> summary = samples.collectEntries { String variant, List<Map<String, Object>> runs ->
+            [(variant): METRICS.collectEntries { String metric -> [(metric): StartupBenchmark.summarize(runs*.get(metric) as List<Number>)] }]
+        } as Map<String, Map<String, Map<String, Number>>>
+
+        new File(output, 'load.json').text = JsonOutput.prettyPrint(JsonOutput.toJson(samples: samples, summary: summary))
+
+        File report = new File(output, 'load.md')
+        report.text = render(summary, iterations, System.getProperty('java.version'))
+
+        println report.text
+        println "Report written to $report.canonicalPath"
+    }
+
+    private static String render(Map<String, Map<String, Map<String, Number>>> summary, int iterations, String javaVersion) {
+        StringWriter writer = new StringWriter()
+        PrintWriter out = new PrintWriter(writer)
+
+        List<String> variants = new ArrayList<>(summary.keySet())
+
+        out.println('# Load Benchmark')
+        out.println()
+        out.println("Medians of $iterations fresh JVM(s) per variant running on Java $javaVersion, minimum and maximum in brackets.")
+        out.println()
+        out.println("| Metric | ${variants.join(' | ')} |")
+        out.println("|---|${variants.collect { '---:' }.join('|')}|")
+
+        for (String metric in METRICS) {
+            List<String> cells = variants.collect { String variant ->
+                Map<String, Number> values = summary[variant][metric]
+                "${values.median} (${values.min} - ${values.max})".toString()
+            }
+            out.println("| $metric | ${cells.join(' | ')} |")
+        }
+
+        out.flush()
+        return writer.toString()
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import groovy.json.JsonOutput
+import groovy.transform.CompileStatic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.scheduling.TaskExecutors
+import org.springframework.context.ConfigurableApplicationContext
+
+import java.lang.management.ManagementFactory
+import java.lang.management.ThreadMXBean
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+/**
+ * Boots a single variant of the example application inside the current JVM, submits blocking tasks
+ * to the Micronaut <code>io</code> executor and writes the throughput and the thread count as JSON
+ * into the file given as the second argument.
+ *
+ * The probe is meant to be executed in a fresh JVM by {@link LoadBenchmark}.
+ */
+@CompileStatic
+class LoadProbe {
+
+    private static final int WARM_UP_RATIO = 10
+
+    static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ${LoadProbe.simpleName} <application class> <output file>")
+            System.exit(2)
+        }
+
+        Class<?> applicationClass = Class.forName(args[0])
+        File output = new File(args[1])
+        int tasks = Integer.getInteger('benchmark.load.tasks', 2000)
+        long blockMillis = Long.getLong('benchmark.load.blockMillis', 50)
+
+        applicationClass.getMethod('main', String[]).invoke(null, [new String[0]] as Object[])
+        ConfigurableApplicationContext context = StartupProbe.getContext(applicationClass)
+
+        ApplicationContext micronautContext = context.getBean(MicronautContextHolder).context
+        ExecutorService executor = micronautContext.getBean(ExecutorService, Qualifiers.byName(TaskExecutors.IO))
+
+        run(executor, tasks.intdiv(WARM_UP_RATIO).intValue(), blockMillis)
+
+        ThreadMXBean threads = ManagementFactory.threadMXBean
+        int threadsBefore = threads.threadCount
+        threads.resetPeakThreadCount()
+
+        long started = System.nanoTime()
+        run(executor, tasks, blockMillis)
+        long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+
+        Map<String, Object> result = [
+            application   : applicationClass.name,
+            tasks         : tasks,
+            blockMillis   : blockMillis,
+            elapsedMillis : elapsedMillis,
+            tasksPerSecond: Math.round(tasks * 1000d / elapsedMillis),
+            threadsBefore : threadsBefore,
+            peakThreads   : threads.peakThreadCount,
+        ] as Map<String, Object>
+
+        output.parentFile.mkdirs()
+        output.text = JsonOutput.toJson(result)
+
+        context.close()
+        System.exit(0)
+    }
+
+    private static void run(ExecutorService executor, int tasks, long blockMillis) {
+        List<Future<?>> futures = new ArrayList<>(tasks)
+        for (int i = 0; i < tasks; i++) {
+            futures.add(executor.submit({ Thread.sleep(blockMillis) } as Runnable))
+        }
+        for (Future<?> future in futures) {
+            future.get()
+        }
+    }
+
+}
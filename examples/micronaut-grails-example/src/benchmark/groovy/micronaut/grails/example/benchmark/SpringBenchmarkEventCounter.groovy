@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import groovy.transform.CompileStatic
+import io.micronaut.context.event.ApplicationEventListener
+
+import javax.inject.Singleton
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counts the benchmark events received by the Micronaut context.
+ */
+@Singleton
+@CompileStatic
+class SpringBenchmarkEventCounter implements ApplicationEventListener<SpringBenchmarkEvent> {
+
+    final AtomicLong count = new AtomicLong()
+
+    @Override
+    void onApplicationEvent(SpringBenchmarkEvent event) {
+        count.incrementAndGet()
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Boots each variant of the example application several times in fresh JVMs using {@link StartupProbe}
+ * and writes a comparative report into the output directory.
+ *
+ * Configured using the following system properties:
+ * <ul>
+ *     <li><code>benchmark.variants</code> - comma separated list of variants, see {@link #VARIANTS}</li>
+ *     <li><code>benchmark.iterations</code> - number of fresh JVMs started for each variant</li>
+ *     <li><code>benchmark.jvmArgs</code> - space separated JVM arguments passed to each probe</li>
+ *     <li><code>benchmark.output</code> - directory for the reports and the probe logs</li>
+ * </ul>
+ */
+@CompileStatic
+class StartupBenchmark {
+
+    static final Map<String, String> VARIANTS = [
+        strict  : 'micronaut.grails.example.Application',
+        bridge  : 'micronaut.grails.example.BridgeApplication',
+        legacy  : 'micronaut.grails.example.LegacyApplication',
+        default : 'micronaut.grails.example.DefaultApplication',
+        exposure: 'micronaut.grails.example.ExposureApplication',
+        shared  : 'micronaut.grails.example.SharedApplication',
+        role    : 'micronaut.grails.example.RoleApplication',
+    ].asImmutable()
+
+    static final List<String> METRICS = [
+        'timeToReadyMillis',
+        'mainMillis',
+        'springBeans',
+        'micronautBeans',
+        'legacyBeans',
+        'parentBeans',
+        'typeLookupMicros',
+        'retainedHeapBytes',
+        'loadedClasses',
+        'threads',
+    ].asImmutable()
+
+    private static final long PROBE_TIMEOUT_MINUTES = 5
+
+    static void main(String[] args) {
+        List<String> variants = System.getProperty('benchmark.variants', VARIANTS.keySet().join(',')).split(',')*.trim()
+        int iterations = Integer.getInteger('benchmark.iterations', 5)
+        List<String> jvmArgs = System.getProperty('benchmark.jvmArgs', '').split(/\s+/).findAll() as List<String>
+        File output = new File(System.getProperty('benchmark.output', 'build/reports/benchmark/startup'))
+        output.mkdirs()
+
+        Map<String, List<Map<String, Object>>> samples = [:]
+
+        for (String variant in variants) {
+            String applicationClass = VARIANTS[variant]
+            if (!applicationClass) {
+                throw new IllegalArgumentException("Unknown variant $variant. Known variants: ${VARIANTS.keySet()}")
+            }
+
+            List<Map<String, Object>> runs = []
+            for (int i = 0; i < iterations; i++) {
+                println "Starting $variant (${i + 1}/$iterations)"
+                runs.add(probe(StartupProbe, applicationClass, jvmArgs, new File(output, "$variant-${i}")))
+            }
+            samples[variant] = runs
+        }
+
+        Map<String, Map<String, Map<String, Number>>> summary = samples.collectEntries { String variant, List<Map<String, Object>> runs ->
+            [(variant): METRICS.collectEntries { String metric -> [(metric): summarize(runs*.get(metric) as List<Number>)] }]
+        } as Map<String, Map<String, Map<String, Number>>>
+
+        new File(output, 'startup.json').text = JsonOutput.prettyPrint(JsonOutput.toJson(samples: samples, summary: summary))
+
+        File report = new File(output, 'startup.md')
+        report.text = render(summary, iterations)
+
+        println report.text
+        println "Report written to $report.canonicalPath"
+    }
+
+    @PackageScope
+    static Map<String, Object> probe(Class<?> probeClass, String applicationClass, List<String> jvmArgs, File base) {
+        File result = new File("${base.path}.json")
+        File log = new File("${base.path}.log")
+        result.delete()
+
+        List<String> command = [new File(System.getProperty('java.home'), 'bin/java').path]
+        command.addAll(jvmArgs)
+        command.addAll(['-Dgrails.env=test', '-cp', System.getProperty('java.class.path'), probeClass.name, applicationClass, result.path])
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start()
+
+        if (!process.waitFor(PROBE_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly()
+            throw new IllegalStateException("Probe for $applicationClass timed out, see $log.canonicalPath")
+        }
+
+        if (process.exitValue() != 0 || !result.exists()) {
+            throw new IllegalStateException("Probe for $applicationClass failed with exit code ${process.exitValue()}, see $log.canonicalPath")
+        }
+
+        return new JsonSlurper().parse(result) as Map<String, Object>
+    }
+
+    @PackageScope
+    static Map<String, Number> summarize(List<Number> values) {
+        List<Long> sorted = values.collect { Number it -> it.longValue() }.sort()
+        return [
+            min   : sorted.first(),
+            median: sorted[sorted.size().intdiv(2).intValue()],
+            max   : sorted.last(),
+        ] as Map<String, Number>
+    }
+
+    private static String render(Map<String, Map<String, Map<String, Number>>> summary, int iterations) {
+        StringWriter writer = new StringWriter()
+        PrintWriter out = new PrintWriter(writer)
+
+        List<String> variants = new ArrayList<>(summary.keySet())
+
+        out.println('# Startup Benchmark')
+        out.println()
+        out.println("Medians of $iterations fresh JVM(s) per variant, minimum and maximum in brackets.")
+        out.println()
+        out.println("| Metric | ${variants.join(' | ')} |")
+        out.println("|---|${variants.collect { '---:' }.join('|')}|")
+
+        for (String metric in METRICS) {
+            List<String> cells = variants.collect { String variant ->
+                Map<String, Number> values = summary[variant][metric]
+                "${values.median} (${values.min} - ${values.max})".toString()
+            }
+            out.println("| $metric | ${cells.join(' | ')} |")
+        }
+
+        String baseline = variants.first()
+        if (variants.size() > 1) {
+            out.println()
+            out.println("Difference of medians compared to `$baseline`:")
+            out.println()
+            out.println("| Metric | ${variants.tail().join(' | ')} |")
+            out.println("|---|${variants.tail().collect { '---:' }.join('|')}|")
+            for (String metric in METRICS) {
+                long base = summary[baseline][metric].median.longValue()
+                List<String> cells = variants.tail().collect { String variant ->
+                    long delta = summary[variant][metric].median.longValue() - base
+                    (delta > 0 ? "+$delta" : "$delta").toString()
+                }
+                out.println("| $metric | ${cells.join(' | ')} |")
+            }
+        }
+
+        out.flush()
+        return writer.toString()
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package micronaut.grails.example.benchmark
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import com.agorapulse.micronaut.grails.example.InjectedUsingBridge
+import groovy.json.JsonOutput
+import groovy.transform.CompileDynamic
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+import io.micronaut.context.ApplicationContext
+import org.springframework.beans.factory.NoSuchBeanDefinitionException
+import org.springframework.context.ConfigurableApplicationContext
+
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryMXBean
+import java.util.concurrent.TimeUnit
+
+/**
+ * Boots a single variant of the example application inside the current JVM, collects the startup metrics
+ * and writes them as JSON into the file given as the second argument.
+ *
+ * The probe is meant to be executed in a fresh JVM by {@link StartupBenchmark}.
+ */
+@CompileStatic
+class StartupProbe {
+
+    private static final int GC_ROUNDS = 5
+    private static final int LOOKUP_ROUNDS = 100
+
+    static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ${StartupProbe.simpleName} <application class> <output file>")
+            System.exit(2)
+        }
+
+        Class<?> applicationClass = Class.forName(args[0])
+        File output = new File(args[1])
+
+        long started = System.nanoTime()
+        applicationClass.getMethod('main', String[]).invoke(null, [new String[0]] as Object[])
+        long mainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+        long readyMillis = ManagementFactory.runtimeMXBean.uptime
+
+        ConfigurableApplicationContext context = getContext(applicationClass)
+
+        Map<String, Object> result = [
+            application        : applicationClass.name,
+            timeToReadyMillis  : readyMillis,
+            mainMillis         : mainMillis,
+            springBeans        : context.beanDefinitionCount,
+            micronautBeans     : 0,
+            legacyBeans        : 0,
+            parentBeans        : context.parent.beanDefinitionCount,
+            typeLookupMicros   : typeLookup(context.parent),
+            retainedHeapBytes  : retainedHeap(),
+            loadedClasses      : ManagementFactory.classLoadingMXBean.loadedClassCount,
+            threads            : ManagementFactory.threadMXBean.threadCount,
+        ] as Map<String, Object>
+
+        ApplicationContext parent = context.getBean(MicronautContextHolder).context
+        result.micronautBeans = parent.allBeanDefinitions.size()
+
+        ApplicationContext bridged = findBridgedContext(context)
+        if (bridged != null && !bridged.is(parent)) {
+            result.legacyBeans = bridged.allBeanDefinitions.size()
+        }
+
+        output.parentFile.mkdirs()
+        output.text = JsonOutput.toJson(result)
+
+        context.close()
+        System.exit(0)
+    }
+
+    @PackageScope
+    @CompileDynamic
+    static ConfigurableApplicationContext getContext(Class<?> applicationClass) {
+        return applicationClass.context as ConfigurableApplicationContext
+    }
+
+    private static ApplicationContext findBridgedContext(ConfigurableApplicationContext context) {
+        try {
+            return context.getBean(InjectedUsingBridge).micronautContext
+        } catch (NoSuchBeanDefinitionException ignored) {
+            // strict mode does not bridge the beans by name
+            return null
+        }
+    }
+
+    private static long typeLookup(org.springframework.context.ApplicationContext parent) {
+        long started = System.nanoTime()
+        for (int i = 0; i < LOOKUP_ROUNDS; i++) {
+            parent.getBeanNamesForType(Object)
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started).intdiv(LOOKUP_ROUNDS).longValue()
+    }
+
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.memoryMXBean
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            memory.gc()
+        }
+        return memory.heapMemoryUsage.used
+    }
+
+}
@@ -23,6 +23,7 @@ import com.agorapulse.micronaut.grails.test.MicronautGrailsIntegration
 import com.agorapulse.testing.fixt.Fixt
 import org.springframework.beans.factory.annotation.Autowired
 import spock.lang.Specification
+import spock.lang.Unroll
 
 @MicronautGrailsIntegration
 class GeneratorSpec extends Specification {
@@ -50,6 +51,47 @@ class GeneratorSpec extends Specification {
             repositoryFile.text.trim() == fixt.readText('UserRepository.groovy.txt').trim()
     }
 
+    void 'unchanged files are not written again'() {
+        given:
+            File root = initRootDirectory()
+            generator.generate(root)
+            File entityFile = new File(root, 'micronaut/grails/example/model/User.groovy')
+            entityFile.lastModified = 0
+        when:
+            generator.generate(root)
+        then:
+            entityFile.lastModified() == 0
+    }
+
+    @Unroll
+    void 'generate identifier of #entity'() {
+        given:
+            File root = initRootDirectory()
+        when:
+            generator.generate(root)
+            File entityFile = new File(root, "micronaut/grails/example/model/${entity}.groovy")
+        then:
+            entityFile.exists()
+            entityFile.text.trim() == fixt.readText("${entity}.groovy.txt").trim()
+        where:
+            entity << ['Invoice', 'Ticket', 'Country']
+    }
+
+    void 'generate eagerly fetched and cached associations'() {
+        given:
+            File root = initRootDirectory()
+        when:
+            generator.generate(root)
+            File entityFile = new File(root, 'micronaut/grails/example/model/Library.groovy')
+            File repositoryFile = new File(root, 'micronaut/grails/example/model/LibraryRepository.groovy')
+        then:
+            entityFile.exists()
+            entityFile.text.trim() == fixt.readText('Library.groovy.txt').trim()
+
+            repositoryFile.exists()
+            repositoryFile.text.trim() == fixt.readText('LibraryRepository.groovy.txt').trim()
+    }
+
     private static File initRootDirectory() {
         File root = new File(System.getProperty('java.io.tmpdir'), 'micronaut-data-model')
 
@@ -21,8 +21,10 @@ package micronaut.grails.example
 import com.agorapulse.micronaut.grails.jpa.generator.MicronautJdbcGenerator
 import com.agorapulse.micronaut.grails.test.MicronautGrailsIntegration
 import com.agorapulse.testing.fixt.Fixt
+import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.springframework.beans.factory.annotation.Autowired
 import spock.lang.Specification
+import spock.lang.Unroll
 
 @MicronautGrailsIntegration
 class MicronautJdbcGeneratorSpec extends Specification {
@@ -50,6 +52,49 @@ class MicronautJdbcGeneratorSpec extends Specification {
             repositoryFile.text.trim() == fixt.readText('VehicleRepository.groovy.txt').trim()
     }
 
+    @Unroll
+    void 'generate identifier of #entity'() {
+        given:
+            File root = initRootDirectory()
+        when:
+            generator.generate(root)
+            File entityFile = new File(root, "micronaut/grails/example/model/${entity}.groovy")
+        then:
+            entityFile.exists()
+            entityFile.text.trim() == fixt.readText("${entity}.groovy.txt").trim()
+        where:
+            entity << ['Invoice', 'Ticket']
+    }
+
+    void 'generate eagerly fetched associations without cache'() {
+        given:
+            File root = initRootDirectory()
+        when:
+            generator.generate(root)
+            File entityFile = new File(root, 'micronaut/grails/example/model/Library.groovy')
+            File repositoryFile = new File(root, 'micronaut/grails/example/model/LibraryRepository.groovy')
+        then:
+            entityFile.exists()
+            entityFile.text.trim() == fixt.readText('Library.groovy.txt').trim()
+
+            repositoryFile.exists()
+            repositoryFile.text.trim() == fixt.readText('LibraryRepository.groovy.txt').trim()
+    }
+
+    void 'configured dialect takes precedence over the detected one'() {
+        given:
+            File root = initRootDirectory()
+            generator.dialects = [(ConnectionSource.DEFAULT): 'POSTGRES']
+        when:
+            generator.generate(root)
+            File repositoryFile = new File(root, 'micronaut/grails/example/model/LibraryRepository.groovy')
+        then:
+            repositoryFile.exists()
+            repositoryFile.text.contains('@JdbcRepository(dialect = Dialect.POSTGRES)')
+        cleanup:
+            generator.dialects = [:]
+    }
+
     private static File initRootDirectory() {
         File root = new File(System.getProperty('java.io.tmpdir'), 'micronaut-data-model')
 
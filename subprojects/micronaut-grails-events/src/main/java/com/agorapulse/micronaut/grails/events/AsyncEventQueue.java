@@ -0,0 +1,130 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of the event deliveries which are executed in batches by a single daemon thread.
+ * <p>
+ * If the queue is full then the publisher waits until there is space in the queue so the events are neither dropped
+ * nor reordered. The events published while forwarding an event are executed by the worker thread itself if the queue
+ * is full because waiting for the queue would block the only thread which drains it.
+ */
+class AsyncEventQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEventQueue.class);
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<Runnable> queue;
+    private final int batchSize;
+    private final EventBridgeMetrics metrics;
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    AsyncEventQueue(String name, int capacity, int batchSize, EventBridgeMetrics metrics) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+        this.worker = new Thread(this::drain, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    void submit(Runnable delivery) {
+        if (running && enqueue(delivery)) {
+            metrics.queueSize(queue.size());
+            return;
+        }
+
+        delivery.run();
+    }
+
+    /**
+     * Stops accepting new events and waits until the events already in the queue are forwarded.
+     * @param timeoutMillis maximum time to wait
+     */
+    void close(long timeoutMillis) {
+        running = false;
+        try {
+            worker.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.warn(queue.size() + " events have not been forwarded before the application context was closed");
+        }
+    }
+
+    private boolean enqueue(Runnable delivery) {
+        if (queue.offer(delivery)) {
+            return true;
+        }
+
+        metrics.overflowed();
+
+        if (Thread.currentThread() == worker) {
+            return false;
+        }
+
+        try {
+            queue.put(delivery);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        // the worker may have already finished if the queue was closed while waiting
+        return running || !queue.remove(delivery);
+    }
+
+    private void drain() {
+        List<Runnable> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Runnable first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                metrics.queueSize(queue.size());
+                metrics.batch(batch.size());
+
+                for (Runnable delivery : batch) {
+                    delivery.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.AbstractApplicationContext;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forwards the events selected by {@link MicronautEventBridge}s between the Spring application context
+ * and the Micronaut parent context.
+ * <p>
+ * The events forwarded into the Spring application context are multicasted only to the Spring listeners so they never
+ * reach the parent context again. If the Spring application context already propagates its events into the Micronaut
+ * parent context, the events selected to be forwarded to Micronaut are not forwarded again. The events are never
+ * forwarded back into the context they came from.
+ */
+public class EventBridgeDispatcher implements ApplicationListener<ApplicationEvent>, ApplicationContextAware, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventBridgeDispatcher.class);
+    private static final int RECENT_SPRING_EVENTS = 16;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final Set<Class<?>> toMicronaut = new LinkedHashSet<>();
+    private final Set<Class<?>> toSpring = new LinkedHashSet<>();
+    private final Map<Class<?>, Boolean> toMicronautMatches = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Boolean> toSpringMatches = new ConcurrentHashMap<>();
+    private final EventBridgeMetrics metrics = new EventBridgeMetrics();
+    private final ThreadLocal<Object> delivering = new ThreadLocal<>();
+    private final ThreadLocal<Deque<Object>> publishedBySpring = ThreadLocal.withInitial(ArrayDeque::new);
+    private final AsyncEventQueue queue;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ApplicationContext springContext;
+    private volatile ApplicationEventMulticaster multicaster;
+    private volatile io.micronaut.context.ApplicationContext micronautContext;
+    private volatile MicronautEventForwarder forwarder;
+    private volatile boolean propagatedByParent;
+
+    public EventBridgeDispatcher(Collection<MicronautEventBridge> bridges) {
+        boolean async = false;
+        int queueCapacity = 0;
+        int batchSize = 0;
+
+        for (MicronautEventBridge bridge : bridges) {
+            toMicronaut.addAll(bridge.getTypesForwardedToMicronaut());
+            toSpring.addAll(bridge.getTypesForwardedToSpring());
+            if (bridge.isAsync()) {
+                async = true;
+                queueCapacity = Math.max(queueCapacity, bridge.getQueueCapacity());
+                batchSize = Math.max(batchSize, bridge.getBatchSize());
+            }
+        }
+
+        this.queue = async ? new AsyncEventQueue("micronaut-grails-event-bridge", queueCapacity, batchSize, metrics) : null;
+    }
+
+    public EventBridgeMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void setApplicationContext(@Nonnull ApplicationContext applicationContext) throws BeansException {
+        this.springContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(@Nonnull ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent && ((ContextRefreshedEvent) event).getApplicationContext() == springContext) {
+            attach();
+            return;
+        }
+
+        if (event instanceof ContextClosedEvent && ((ContextClosedEvent) event).getApplicationContext() == springContext) {
+            detach();
+            return;
+        }
+
+        Object payload = event instanceof PayloadApplicationEvent ? ((PayloadApplicationEvent<?>) event).getPayload() : event;
+
+        if (matches(toSpring, toSpringMatches, payload)) {
+            rememberPublishedBySpring(payload);
+        }
+
+        io.micronaut.context.ApplicationContext context = micronautContext;
+        if (context == null || propagatedByParent || delivering.get() == payload || !matches(toMicronaut, toMicronautMatches, payload)) {
+            return;
+        }
+
+        forward(payload, () -> context.publishEvent(payload));
+    }
+
+    @Override
+    public void destroy() {
+        detach();
+    }
+
+    void onMicronautEvent(Object event) {
+        if (event instanceof ContextRefreshedEvent && ((ContextRefreshedEvent) event).getApplicationContext() == springContext) {
+            propagatedByParent = true;
+            LOGGER.debug("Spring events are propagated into the Micronaut parent context, only Micronaut events are forwarded");
+            return;
+        }
+
+        ApplicationEventMulticaster springMulticaster = multicaster;
+        if (springMulticaster == null || delivering.get() == event || !matches(toSpring, toSpringMatches, event) || isPublishedBySpring(event)) {
+            return;
+        }
+
+        ApplicationEvent springEvent = event instanceof ApplicationEvent ? (ApplicationEvent) event : new PayloadApplicationEvent<>(springContext, event);
+        forward(event, () -> springMulticaster.multicastEvent(springEvent));
+    }
+
+    private void forward(Object event, Runnable delivery) {
+        metrics.submitted();
+
+        if (queue == null) {
+            deliver(event, delivery, true);
+            return;
+        }
+
+        queue.submit(() -> deliver(event, delivery, false));
+    }
+
+    private void deliver(Object event, Runnable delivery, boolean rethrow) {
+        Object previous = delivering.get();
+        delivering.set(event);
+        try {
+            delivery.run();
+            metrics.delivered();
+        } catch (RuntimeException e) {
+            metrics.failed();
+            if (rethrow) {
+                throw e;
+            }
+            LOGGER.error("Failed to forward event " + event, e);
+        } finally {
+            if (previous == null) {
+                delivering.remove();
+            } else {
+                delivering.set(previous);
+            }
+        }
+    }
+
+    private void attach() {
+        if (toMicronaut.isEmpty() && toSpring.isEmpty()) {
+            return;
+        }
+
+        io.micronaut.context.ApplicationContext context;
+        try {
+            context = springContext.getBean(MicronautContextHolder.class).getContext();
+        } catch (NoSuchBeanDefinitionException e) {
+            LOGGER.warn("Micronaut parent context not found, events will not be forwarded");
+            return;
+        }
+
+        multicaster = springContext.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ApplicationEventMulticaster.class);
+
+        // the forwarder is also required to detect whether the Spring events are already propagated to Micronaut
+        Optional<MicronautEventForwarder> micronautForwarder = context.findBean(MicronautEventForwarder.class);
+        if (micronautForwarder.isPresent()) {
+            forwarder = micronautForwarder.get();
+            forwarder.attach(this);
+        } else if (!toSpring.isEmpty()) {
+            LOGGER.warn("Micronaut event forwarder not found, events " + toSpring + " will not be forwarded to Spring");
+        }
+
+        micronautContext = context;
+    }
+
+    private void detach() {
+        MicronautEventForwarder micronautForwarder = forwarder;
+        if (micronautForwarder != null) {
+            micronautForwarder.detach(this);
+            forwarder = null;
+        }
+
+        micronautContext = null;
+        multicaster = null;
+
+        if (queue != null && closed.compareAndSet(false, true)) {
+            queue.close(CLOSE_TIMEOUT_MILLIS);
+            LOGGER.info("Event bridge closed: " + metrics);
+        }
+    }
+
+    private void rememberPublishedBySpring(Object event) {
+        Deque<Object> recent = publishedBySpring.get();
+        if (recent.size() >= RECENT_SPRING_EVENTS) {
+            recent.removeLast();
+        }
+        recent.addFirst(event);
+    }
+
+    private boolean isPublishedBySpring(Object event) {
+        for (Object recent : publishedBySpring.get()) {
+            if (recent == event) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(Set<Class<?>> types, Map<Class<?>, Boolean> cache, Object event) {
+        if (types.isEmpty() || event == null) {
+            return false;
+        }
+        return cache.computeIfAbsent(event.getClass(), eventType -> {
+            for (Class<?> type : types) {
+                if (type.isAssignableFrom(eventType)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the events forwarded by {@link EventBridgeDispatcher}.
+ */
+public class EventBridgeMetrics {
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batched = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicInteger maxQueueSize = new AtomicInteger();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    /**
+     * @return the number of the events accepted for forwarding
+     */
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    /**
+     * @return the number of the events forwarded to the other context
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * @return the number of the events whose listeners failed in the other context
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of the batches forwarded in the asynchronous mode
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return the number of the events which did not fit into the full queue and made the publisher wait
+     */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    /**
+     * @return the current number of the events waiting in the queue
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * @return the highest number of the events waiting in the queue so far
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize.get();
+    }
+
+    /**
+     * @return the average number of the events forwarded in a single batch
+     */
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) batched.get() / count;
+    }
+
+    void submitted() {
+        submitted.incrementAndGet();
+    }
+
+    void delivered() {
+        delivered.incrementAndGet();
+    }
+
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    void batch(int size) {
+        batches.incrementAndGet();
+        batched.addAndGet(size);
+    }
+
+    void overflowed() {
+        overflowed.incrementAndGet();
+    }
+
+    void queueSize(int size) {
+        queueSize.set(size);
+        maxQueueSize.accumulateAndGet(size, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        return "submitted=" + getSubmitted()
+            + ", delivered=" + getDelivered()
+            + ", failed=" + getFailed()
+            + ", batches=" + getBatches()
+            + ", overflowed=" + getOverflowed()
+            + ", maxQueueSize=" + getMaxQueueSize();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Defines which events should be forwarded between the Grails' Spring application context and the Micronaut parent
+ * context. Declare it as a bean in the Spring application context, all the declared bridges are merged together.
+ * <p>
+ * Events are forwarded if they are instances of any of the selected types. Spring events which are not instances
+ * of <code>ApplicationEvent</code> are matched using their payload. The events are forwarded synchronously by default,
+ * use {@link #async(int, int)} to forward them from a bounded queue in batches.
+ */
+public class MicronautEventBridge {
+
+    /**
+     * The default capacity of the queue used in the asynchronous mode.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    /**
+     * The default maximum number of events forwarded in a single batch in the asynchronous mode.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    public static MicronautEventBridge create() {
+        return new MicronautEventBridge();
+    }
+
+    private final Set<Class<?>> toMicronaut = new LinkedHashSet<>();
+    private final Set<Class<?>> toSpring = new LinkedHashSet<>();
+    private boolean async;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    protected MicronautEventBridge() { }
+
+    /**
+     * Forwards the events published in the Spring application context into the Micronaut context.
+     * @param types the types of the events
+     * @return self
+     */
+    public MicronautEventBridge forwardToMicronaut(Class<?>... types) {
+        toMicronaut.addAll(Arrays.asList(types));
+        return this;
+    }
+
+    /**
+     * Forwards the events published in the Micronaut context into the Spring application context.
+     * @param types the types of the events
+     * @return self
+     */
+    public MicronautEventBridge forwardToSpring(Class<?>... types) {
+        toSpring.addAll(Arrays.asList(types));
+        return this;
+    }
+
+    /**
+     * Forwards the events asynchronously using the queue of the default capacity.
+     * @return self
+     */
+    public MicronautEventBridge async() {
+        return async(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Forwards the events asynchronously.
+     * <p>
+     * The events are put into a bounded queue and forwarded in batches from a single thread which keeps their order.
+     * When the queue is full, the publisher waits until there is space in the queue.
+     *
+     * @param queueCapacity the capacity of the queue
+     * @param batchSize the maximum number of events forwarded in a single batch
+     * @return self
+     */
+    public MicronautEventBridge async(int queueCapacity, int batchSize) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Queue capacity and batch size must be positive");
+        }
+        this.async = true;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public Set<Class<?>> getTypesForwardedToMicronaut() {
+        return Collections.unmodifiableSet(toMicronaut);
+    }
+
+    public Set<Class<?>> getTypesForwardedToSpring() {
+        return Collections.unmodifiableSet(toSpring);
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+/**
+ * Registers {@link EventBridgeDispatcher} which forwards the events selected by all the {@link MicronautEventBridge}
+ * beans.
+ */
+@Configuration
+public class MicronautEventBridgeConfiguration {
+
+    @Bean
+    EventBridgeDispatcher eventBridgeDispatcher(ObjectProvider<MicronautEventBridge> bridges) {
+        return new EventBridgeDispatcher(bridges.orderedStream().collect(Collectors.toList()));
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events;
+
+import com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Listens to all the events published in the Micronaut parent context and passes them to the attached
+ * {@link EventBridgeDispatcher}s.
+ */
+@Singleton
+@Requires(beans = MicronautGrailsAutoConfiguration.class)
+public class MicronautEventForwarder implements ApplicationEventListener<Object> {
+
+    private final List<EventBridgeDispatcher> dispatchers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onApplicationEvent(Object event) {
+        for (EventBridgeDispatcher dispatcher : dispatchers) {
+            dispatcher.onMicronautEvent(event);
+        }
+    }
+
+    @Override
+    public boolean supports(Object event) {
+        return !dispatchers.isEmpty();
+    }
+
+    void attach(EventBridgeDispatcher dispatcher) {
+        dispatchers.add(dispatcher);
+    }
+
+    void detach(EventBridgeDispatcher dispatcher) {
+        dispatchers.remove(dispatcher);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.events
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.event.ApplicationEventListener
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import org.springframework.context.PayloadApplicationEvent
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.inject.Singleton
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Tests for event bridge.
+ */
+@CompileDynamic
+class EventBridgeDispatcherSpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.build()
+        .singletons(new MicronautGrailsAutoConfiguration())
+        .start()
+
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    RecordingSpringListener springListener = new RecordingSpringListener()
+
+    void 'events are forwarded synchronously'() {
+        given:
+            EventBridgeDispatcher dispatcher = start(MicronautEventBridge.create()
+                .forwardToMicronaut(SpringEvent)
+                .forwardToSpring(MicronautEvent)
+            )
+        when:
+            springContext.publishEvent(new SpringEvent(name: 'spring'))
+            micronautContext.publishEvent(new MicronautEvent(name: 'micronaut'))
+        then:
+            micronautContext.getBean(RecordingMicronautListener).events*.name == ['spring']
+            springListener.payloads.findAll { it instanceof MicronautEvent }*.name == ['micronaut']
+            dispatcher.metrics.delivered == 2
+    }
+
+    void 'events are not forwarded back'() {
+        given:
+            start(MicronautEventBridge.create()
+                .forwardToMicronaut(SpringEvent)
+                .forwardToSpring(SpringEvent)
+            )
+        when:
+            springContext.publishEvent(new SpringEvent(name: 'spring'))
+            micronautContext.publishEvent(new SpringEvent(name: 'micronaut'))
+        then:
+            micronautContext.getBean(RecordingMicronautListener).events*.name == ['spring', 'micronaut']
+            springListener.payloads.findAll { it instanceof SpringEvent }*.name == ['spring', 'micronaut']
+    }
+
+    void 'events are forwarded asynchronously in batches'() {
+        given:
+            EventBridgeDispatcher dispatcher = start(MicronautEventBridge.create()
+                .forwardToSpring(MicronautEvent)
+                .async(10, 5)
+            )
+        when:
+            100.times {
+                micronautContext.publishEvent(new MicronautEvent(name: "event-$it"))
+            }
+        then:
+            new PollingConditions(timeout: 5).eventually {
+                assert springListener.payloads.findAll { it instanceof MicronautEvent }.size() == 100
+            }
+            springListener.payloads.findAll { it instanceof MicronautEvent }*.name == (0..<100).collect { "event-$it".toString() }
+            dispatcher.metrics.submitted == 100
+            dispatcher.metrics.delivered == 100
+            dispatcher.metrics.batches > 0
+            dispatcher.metrics.maxQueueSize <= 10
+            dispatcher.metrics.averageBatchSize <= 5
+    }
+
+    private EventBridgeDispatcher start(MicronautEventBridge bridge) {
+        EventBridgeDispatcher dispatcher = new EventBridgeDispatcher([bridge])
+        dispatcher.applicationContext = springContext
+        springContext.beanFactory.registerSingleton('micronautContextHolder', new MicronautContextHolder(micronautContext))
+        springContext.beanFactory.registerSingleton('eventBridgeDispatcher', dispatcher)
+        springContext.beanFactory.registerSingleton('springListener', springListener)
+        springContext.refresh()
+        return dispatcher
+    }
+
+}
+
+@CompileDynamic
+class SpringEvent {
+    String name
+}
+
+@CompileDynamic
+class MicronautEvent {
+    String name
+}
+
+@Singleton
+@CompileDynamic
+class RecordingMicronautListener implements ApplicationEventListener<SpringEvent> {
+
+    final List<SpringEvent> events = new CopyOnWriteArrayList<>()
+
+    @Override
+    void onApplicationEvent(SpringEvent event) {
+        events << event
+    }
+
+}
+
+@CompileDynamic
+class RecordingSpringListener implements ApplicationListener<ApplicationEvent> {
+
+    final List<Object> payloads = new CopyOnWriteArrayList<>()
+
+    @Override
+    void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof PayloadApplicationEvent) {
+            payloads << event.payload
+        }
+    }
+
+}
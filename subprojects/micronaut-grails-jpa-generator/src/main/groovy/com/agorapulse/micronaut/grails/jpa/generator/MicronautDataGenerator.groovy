@@ -19,15 +19,21 @@ package com.agorapulse.micronaut.grails.jpa.generator
 
 import grails.gorm.validation.ConstrainedProperty
 import groovy.transform.CompileStatic
+import io.micronaut.core.naming.NameUtils
 import org.grails.datastore.gorm.validation.constraints.eval.ConstraintsEvaluator
 import org.grails.datastore.mapping.config.Property
 import org.grails.datastore.mapping.core.Datastore
+import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.model.PersistentEntity
 import org.grails.datastore.mapping.model.PersistentProperty
+import org.grails.datastore.mapping.model.types.Association
 import org.grails.datastore.mapping.model.types.ManyToOne
 import org.grails.datastore.mapping.model.types.OneToMany
 import org.grails.datastore.mapping.model.types.OneToOne
 import org.grails.datastore.mapping.model.types.Simple
+import org.grails.orm.hibernate.cfg.CacheConfig
+import org.grails.orm.hibernate.cfg.Identity
+import org.grails.orm.hibernate.cfg.Mapping
 
 import javax.persistence.FetchType
 import javax.persistence.PostLoad
@@ -38,6 +44,13 @@ import javax.persistence.PrePersist
 import javax.persistence.PreRemove
 import javax.persistence.PreUpdate
 
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
 /**
  * Experimental generator of JPA entities based on GORM entities.
  */
@@ -55,31 +68,66 @@ abstract class MicronautDataGenerator {
             onLoad      : PostLoad,
     ].asImmutable() as Map<String, Class>
 
+    private static final List<String> SEQUENCE_GENERATORS = ['sequence', 'seqhilo', 'sequence-identity', 'enhanced-sequence'].asImmutable()
+    private static final List<String> TABLE_GENERATORS = ['table', 'enhanced-table', 'hilo'].asImmutable()
+    private static final String DEFAULT_SEQUENCE_NAME = 'hibernate_sequence'
+
+    /**
+     * Default allocation size of the sequence and table identifier generators.
+     */
+    public static final int DEFAULT_ALLOCATION_SIZE = 50
+
     protected final Datastore datastore
     protected final ConstraintsEvaluator constraintsEvaluator
 
+    /**
+     * Number of identifiers allocated at once by the sequence and table generators unless set in the mapping.
+     *
+     * The pooled optimizer expects the existing sequences to be incremented by the same number, e.g. using
+     * <code>ALTER SEQUENCE hibernate_sequence INCREMENT BY 50</code>, otherwise it generates duplicate identifiers.
+     */
+    int allocationSize = DEFAULT_ALLOCATION_SIZE
+
     protected MicronautDataGenerator(Datastore datastore, ConstraintsEvaluator constraintsEvaluator) {
         this.constraintsEvaluator = constraintsEvaluator
         this.datastore = datastore
     }
 
+    /**
+     * Generates the entities and the repositories into given root directory.
+     *
+     * The entities are generated in parallel and the files are only written if their content has changed
+     * so the incremental compilation of the generated sources stays effective.
+     *
+     * @param root the root directory of the generated sources
+     * @param packageSuffix the suffix of the package of the generated classes
+     * @param generateEnums whether to copy the enums used by the entities
+     * @param parallelism the maximum number of entities generated at the same time
+     * @return the number of generated entities
+     */
     @SuppressWarnings('NestedForLoop')
-    int generate(File root, String packageSuffix = '.model', boolean generateEnums = false) {
+    int generate(File root, String packageSuffix = '.model', boolean generateEnums = false, int parallelism = Runtime.runtime.availableProcessors()) {
         Collection<PersistentEntity> entities = datastore.mappingContext.persistentEntities
         Collection<Class> entityClasses = entities*.javaClass
-        entities.each { PersistentEntity entity ->
-            File packageDirectory = new File(root, (entity.javaClass.package.name + packageSuffix).replace('.', File.separator))
-            packageDirectory.mkdirs()
 
-            File entityFile = new File(packageDirectory, "${entity.javaClass.simpleName}.groovy")
-            entityFile.text = generateEntity(entity, entityClasses, packageSuffix)
-
-            File repositoryFile = new File(packageDirectory, "${entity.javaClass.simpleName}Repository.groovy")
-            repositoryFile.text = generateRepository(entity, packageSuffix)
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, entities.size())))
+        try {
+            List<Future<Object>> futures = entities.collect { PersistentEntity entity ->
+                executor.submit({ generateFiles(root, entity, entityClasses, packageSuffix) } as Callable<Object>)
+            }
+            for (Future<Object> future in futures) {
+                try {
+                    future.get()
+                } catch (ExecutionException e) {
+                    throw e.cause
+                }
+            }
+        } finally {
+            executor.shutdownNow()
         }
 
         if (generateEnums) {
-            List<Class> requiredEnums = []
+            Set<Class> requiredEnums = new LinkedHashSet<>()
             for (PersistentEntity entity in datastore.mappingContext.persistentEntities) {
                 for (PersistentProperty property in entity.persistentProperties) {
                     if (property.type.enum) {
@@ -136,6 +184,13 @@ abstract class MicronautDataGenerator {
             body.println('@CompileStatic')
         }
 
+        CacheConfig cache = secondLevelCacheSupported ? getCache(entity) : null
+        if (cache) {
+            imports.add('javax.persistence.Cacheable')
+            body.println('@Cacheable')
+            printCache(cache, '', body, imports)
+        }
+
         List<UnifiedProperty> uniqueProperties = unifiedProperties.findAll { !it.index && it.uniqueColumnNames }
         List<UnifiedProperty> indexedProperties = unifiedProperties.findAll { it.index }
 
@@ -177,11 +232,7 @@ abstract class MicronautDataGenerator {
         body.println()
 
         if (entity.identity) {
-            imports.add('javax.persistence.Id')
-            imports.add('javax.persistence.GeneratedValue')
-            imports.add('javax.persistence.GenerationType')
-
-            body.println('    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)')
+            printIdentity(entity, body, imports)
             body.println("    $entity.identity.type.simpleName $entity.identity.name")
             body.println()
         }
@@ -194,7 +245,7 @@ abstract class MicronautDataGenerator {
         }
 
         for (UnifiedProperty property in unifiedProperties) {
-            printProperty(property, body, imports)
+            printProperty(property, body, imports, secondLevelCacheSupported)
         }
 
         GORM_HOOKS_TO_ANNOTATIONS.each { String methodName, Class annotation ->
@@ -225,11 +276,77 @@ abstract class MicronautDataGenerator {
         return finalWriter.toString()
     }
 
+    /**
+     * Prints the identifier annotations translated from the GORM <code>id generator</code> mapping.
+     *
+     * Sequence and table generators use the pooled optimizer with the allocation size taken from
+     * <code>allocationSize</code> or <code>increment_size</code> parameter or from {@link #allocationSize}.
+     * The sequence defaults to <code>hibernate_sequence</code> as in GORM. The identity generation is used
+     * if the strategy is not supported by the target datastore.
+     */
+    @SuppressWarnings(['Instanceof', 'LineLength'])
+    protected void printIdentity(PersistentEntity entity, PrintWriter writer, Set<String> imports) {
+        Mapping mapping = entity.mapping.mappedForm instanceof Mapping ? entity.mapping.mappedForm as Mapping : null
+        Identity identity = mapping?.identity instanceof Identity ? mapping.identity as Identity : null
+        String generator = identity?.generator ?: 'native'
+        Map<String, Object> params = (identity?.params ?: [:]) as Map<String, Object>
+
+        imports.add('javax.persistence.Id')
+
+        if (generator == 'assigned') {
+            writer.println('    @Id')
+            return
+        }
+
+        String tableName = mapping?.table?.name ?: NameUtils.underscoreSeparate(entity.javaClass.simpleName).toLowerCase()
+        String generatorName = "${tableName}_generator"
+        Object allocation = params.allocationSize ?: params.increment_size ?: allocationSize
+
+        imports.add('javax.persistence.GeneratedValue')
+        imports.add('javax.persistence.GenerationType')
+
+        if (generator in SEQUENCE_GENERATORS && isSequenceSupported(entity)) {
+            imports.add('javax.persistence.SequenceGenerator')
+            String sequenceName = (params.sequence ?: params.sequence_name ?: DEFAULT_SEQUENCE_NAME) as String
+            writer.println("    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = '$generatorName')")
+            writer.println("    @SequenceGenerator(name = '$generatorName', sequenceName = '$sequenceName', allocationSize = $allocation)")
+            return
+        }
+
+        if (generator in TABLE_GENERATORS && isTableGeneratorSupported(entity)) {
+            imports.add('javax.persistence.TableGenerator')
+            String table = (params.table ?: params.table_name ?: 'hibernate_sequences') as String
+            String segment = (params.segment_value ?: tableName) as String
+            writer.println("    @Id @GeneratedValue(strategy = GenerationType.TABLE, generator = '$generatorName')")
+            writer.println("    @TableGenerator(name = '$generatorName', table = '$table', pkColumnValue = '$segment', allocationSize = $allocation)")
+            return
+        }
+
+        writer.println('    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)')
+    }
+
+    /**
+     * @param entity the generated entity
+     * @return <code>true</code> if the target datastore supports sequences
+     */
+    protected boolean isSequenceSupported(PersistentEntity entity) {
+        return true
+    }
+
+    /**
+     * @param entity the generated entity
+     * @return <code>true</code> if the target datastore supports table based identifier generators
+     */
+    protected boolean isTableGeneratorSupported(PersistentEntity entity) {
+        return true
+    }
+
     @SuppressWarnings('LineLength')
     private static void printProperty(
             UnifiedProperty unified,
             PrintWriter writer,
-            Set<String> imports
+            Set<String> imports,
+            boolean cacheSupported
     ) {
         switch (unified.persistentProperty) {
             case Simple:
@@ -239,7 +356,7 @@ abstract class MicronautDataGenerator {
                 printOneToOne(writer, unified, imports)
                 break
             case OneToMany:
-                printOneToMany(unified, writer, imports)
+                printOneToMany(unified, writer, imports, cacheSupported)
                 break
             case ManyToOne:
                 printManyToOne(writer, unified, imports)
@@ -265,7 +382,7 @@ abstract class MicronautDataGenerator {
     }
 
     @SuppressWarnings(['AbcMetric', 'LineLength'])
-    private static void printOneToMany(UnifiedProperty unified, PrintWriter writer, Set<String> imports) {
+    private static void printOneToMany(UnifiedProperty unified, PrintWriter writer, Set<String> imports, boolean cacheSupported) {
         OneToMany oneToMany = unified.persistentProperty as OneToMany
         List<CharSequence> parts = []
 
@@ -312,10 +429,21 @@ abstract class MicronautDataGenerator {
             }
         }
 
+        if (cacheSupported && unified.cache) {
+            printCache(unified.cache, '    ', writer, imports)
+        }
+
         writer.println("    ${unified.sort ? 'List' : 'Set'}<$oneToMany.associatedEntity.javaClass.simpleName> $unified.persistentProperty.name")
         writer.println()
     }
 
+    private static void printCache(CacheConfig cache, String indent, PrintWriter writer, Set<String> imports) {
+        imports.add('org.hibernate.annotations.Cache')
+        imports.add('org.hibernate.annotations.CacheConcurrencyStrategy')
+        String usage = (cache.usage ?: 'read-write').toUpperCase().replace('-', '_')
+        writer.println("${indent}@Cache(usage = CacheConcurrencyStrategy.$usage)")
+    }
+
     private static void printOneToOne(PrintWriter writer, UnifiedProperty unified, Set<String> imports) {
         imports.add('javax.persistence.OneToOne')
         writer.print('    @OneToOne')
@@ -498,6 +626,91 @@ abstract class MicronautDataGenerator {
     @SuppressWarnings('LineLength')
     protected abstract String generateRepository(PersistentEntity entity, String packageSuffix)
 
+    /**
+     * @param entity the generated entity
+     * @return the name of the datasource of the entity
+     */
+    protected static String getDatasourceName(PersistentEntity entity) {
+        List<String> datasources = entity.mapping.mappedForm.datasources
+        return datasources ? datasources.first() : ConnectionSource.DEFAULT
+    }
+
+    /**
+     * Returns the names of the associations which GORM fetches eagerly, i.e. mapped with <code>fetch: 'join'</code>
+     * or <code>lazy: false</code>.
+     *
+     * @param entity the generated entity
+     * @return the names of the associations which should be fetched together with the entity
+     */
+    @SuppressWarnings('Instanceof')
+    protected static List<String> getFetchJoins(PersistentEntity entity) {
+        return entity.associations.findAll { Association association ->
+            Object mappedForm = association.mapping?.mappedForm
+            if (!(mappedForm instanceof Property)) {
+                return false
+            }
+            Property property = mappedForm as Property
+            return property.lazy == Boolean.FALSE || property.fetchStrategy == FetchType.EAGER
+        }*.name.sort()
+    }
+
+    /**
+     * Returns the second-level cache configuration of the entity mapped with <code>cache true</code>
+     * or <code>cache usage: 'read-only'</code>.
+     *
+     * @param entity the generated entity
+     * @return the cache configuration or <code>null</code> if the entity is not cached
+     */
+    @SuppressWarnings('Instanceof')
+    protected static CacheConfig getCache(PersistentEntity entity) {
+        Object mapping = entity.mapping.mappedForm
+        if (mapping instanceof Mapping && (mapping as Mapping).cache?.enabled) {
+            return (mapping as Mapping).cache
+        }
+        return null
+    }
+
+    /**
+     * Prints the finders overriding <code>findById</code> and <code>findAll</code> methods annotated with the given
+     * annotations, e.g. to load the eagerly fetched associations by the same query.
+     *
+     * @param entity the generated entity
+     * @param findByIdAnnotations the annotations of the <code>findById</code> method
+     * @param findAllAnnotations the annotations of the <code>findAll</code> method
+     * @param indent the indentation of the repository template
+     * @return the finders or empty string if no annotations are given
+     */
+    protected static String printFinders(PersistentEntity entity, List<String> findByIdAnnotations, List<String> findAllAnnotations, String indent) {
+        if (!findByIdAnnotations && !findAllAnnotations) {
+            return ''
+        }
+
+        List<String> lines = []
+        String entityName = entity.javaClass.simpleName
+        Map<String, List<String>> finders = [
+            ("Optional<$entityName> findById($entity.identity.type.simpleName id)".toString()): findByIdAnnotations,
+            ("Iterable<$entityName> findAll()".toString()): findAllAnnotations,
+        ]
+        finders.each { String signature, List<String> annotations ->
+            if (!annotations) {
+                return
+            }
+            lines.add('')
+            lines.add("$indent    @Override".toString())
+            annotations.each { String annotation -> lines.add("$indent    $annotation".toString()) }
+            lines.add("$indent    $signature".toString())
+        }
+        lines.add('')
+        return lines.join('\n')
+    }
+
+    /**
+     * @return <code>true</code> if the generated entities can use Hibernate second-level cache
+     */
+    protected boolean isSecondLevelCacheSupported() {
+        return true
+    }
+
     private static void copyEnum(File root, Class enumType) {
         if (!enumType.enum) {
             return
@@ -510,14 +723,43 @@ abstract class MicronautDataGenerator {
 
         List<Object> enumValues = enumType.getMethod('values').invoke(null) as List<Object>
 
-        enumFile.text = """
+        writeIfChanged(enumFile, """
         package $enumType.package.name;
 
         public enum $enumType.simpleName {
             // TODO: migrate original enum
             ${enumValues.join(', ')};
         }
-        """.stripIndent().trim()
+        """.stripIndent().trim())
+    }
+
+    /**
+     * Writes the content into the file unless the file already has the same content.
+     *
+     * @param file the file to write
+     * @param content the expected content of the file
+     * @return <code>true</code> if the file has been written
+     */
+    protected static boolean writeIfChanged(File file, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8)
+        if (file.exists() && file.length() == bytes.length && Arrays.equals(file.bytes, bytes)) {
+            return false
+        }
+        file.bytes = bytes
+        return true
+    }
+
+    protected Object generateFiles(File root, PersistentEntity entity, Collection<Class> entityClasses, String packageSuffix) {
+        File packageDirectory = new File(root, (entity.javaClass.package.name + packageSuffix).replace('.', File.separator))
+        packageDirectory.mkdirs()
+
+        File entityFile = new File(packageDirectory, "${entity.javaClass.simpleName}.groovy")
+        writeIfChanged(entityFile, generateEntity(entity, entityClasses, packageSuffix))
+
+        File repositoryFile = new File(packageDirectory, "${entity.javaClass.simpleName}Repository.groovy")
+        writeIfChanged(repositoryFile, generateRepository(entity, packageSuffix))
+
+        return entity
     }
 
     @SuppressWarnings('ImplicitClosureParameter')
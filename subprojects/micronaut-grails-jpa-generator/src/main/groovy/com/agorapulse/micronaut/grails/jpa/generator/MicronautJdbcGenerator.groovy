@@ -20,14 +20,41 @@ package com.agorapulse.micronaut.grails.jpa.generator
 import groovy.transform.CompileStatic
 import org.grails.datastore.gorm.validation.constraints.eval.ConstraintsEvaluator
 import org.grails.datastore.mapping.core.Datastore
+import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.orm.hibernate.HibernateDatastore
+import org.hibernate.SessionFactory
+import org.hibernate.engine.spi.SessionFactoryImplementor
 
 /**
  * Experimental generator of Micronaut DATA JDBC entities based on GORM entities.
+ *
+ * The dialect of the generated repositories is detected from the Hibernate dialect of the entity's datasource
+ * unless it is set explicitly in {@link #dialects}.
  */
 @CompileStatic
 class MicronautJdbcGenerator extends MicronautDataGenerator {
 
+    /**
+     * Dialect used if it cannot be detected or the Hibernate dialect is not known.
+     */
+    public static final String DEFAULT_DIALECT = 'MYSQL'
+
+    private static final Map<String, String> HIBERNATE_DIALECTS = [
+        H2        : 'H2',
+        PostgreSQL: 'POSTGRES',
+        MySQL     : 'MYSQL',
+        MariaDB   : 'MYSQL',
+        Oracle    : 'ORACLE',
+        SQLServer : 'SQL_SERVER',
+    ].asImmutable()
+
+    /**
+     * Names of the Micronaut Data dialects, such as <code>POSTGRES</code>, for the datasource names which take
+     * precedence over the detected ones.
+     */
+    Map<String, String> dialects = [:]
+
     MicronautJdbcGenerator(Datastore datastore, ConstraintsEvaluator constraintsEvaluator) {
         super(datastore, constraintsEvaluator)
     }
@@ -35,18 +62,70 @@ class MicronautJdbcGenerator extends MicronautDataGenerator {
     @Override
     @SuppressWarnings('LineLength')
     protected String generateRepository(PersistentEntity entity, String packageSuffix) {
+        List<String> joins = getFetchJoins(entity).collect { String association -> "@Join('$association')".toString() }
+
         return """
         package $entity.javaClass.package.name$packageSuffix
-
+${joins ? '\n        import io.micronaut.data.annotation.Join' : ''}
         import io.micronaut.data.jdbc.annotation.JdbcRepository
         import io.micronaut.data.model.query.builder.sql.Dialect
         import io.micronaut.data.repository.CrudRepository
 
-        @JdbcRepository(dialect = Dialect.MYSQL)
+        @JdbcRepository(dialect = Dialect.${getDialect(entity)})
         interface ${entity.javaClass.simpleName}Repository extends CrudRepository<${entity.javaClass.simpleName}, ${entity.identity.type.simpleName}> {
-
+${printFinders(entity, joins, joins, '        ')}
         }
         """.stripIndent().trim()
     }
 
+    /**
+     * Returns the Micronaut Data dialect of the entity's datasource.
+     *
+     * @param entity the generated entity
+     * @return the name of the Micronaut Data dialect
+     */
+    @SuppressWarnings('Instanceof')
+    protected String getDialect(PersistentEntity entity) {
+        String datasource = getDatasourceName(entity)
+        String dialect = dialects[datasource]
+        if (dialect) {
+            return dialect
+        }
+
+        if (!(datastore instanceof HibernateDatastore)) {
+            return DEFAULT_DIALECT
+        }
+
+        HibernateDatastore hibernateDatastore = datastore as HibernateDatastore
+        if (datasource != ConnectionSource.DEFAULT) {
+            hibernateDatastore = hibernateDatastore.getDatastoreForConnection(datasource)
+        }
+
+        SessionFactory sessionFactory = hibernateDatastore.sessionFactory
+        if (!(sessionFactory instanceof SessionFactoryImplementor)) {
+            return DEFAULT_DIALECT
+        }
+
+        String hibernateDialect = (sessionFactory as SessionFactoryImplementor).jdbcServices.dialect.class.simpleName
+        return HIBERNATE_DIALECTS.find { String prefix, String name -> hibernateDialect.startsWith(prefix) }?.value ?: DEFAULT_DIALECT
+    }
+
+    @Override
+    protected boolean isSecondLevelCacheSupported() {
+        // Micronaut Data JDBC does not use Hibernate
+        return false
+    }
+
+    @Override
+    protected boolean isSequenceSupported(PersistentEntity entity) {
+        // Micronaut Data JDBC only generates the identifiers using identity columns
+        return false
+    }
+
+    @Override
+    protected boolean isTableGeneratorSupported(PersistentEntity entity) {
+        // Micronaut Data JDBC does not support table based generators
+        return false
+    }
+
 }
@@ -19,6 +19,7 @@ package com.agorapulse.micronaut.grails.jpa.generator
 
 import groovy.transform.CompileStatic
 import org.grails.datastore.gorm.validation.constraints.eval.ConstraintsEvaluator
+import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.core.Datastore
 import org.grails.datastore.mapping.model.PersistentEntity
 
@@ -33,26 +34,35 @@ class MicronautJpaGenerator extends MicronautDataGenerator {
     }
 
     @Override
-    @SuppressWarnings('LineLength')
+    @SuppressWarnings(['LineLength', 'ImplicitClosureParameter'])
     protected String generateRepository(PersistentEntity entity, String packageSuffix) {
-        String datasourceDefinition = ''
+        String datasource = getDatasourceName(entity)
+        String datasourceDefinition = datasource == ConnectionSource.DEFAULT ? '' : "('$datasource')"
 
-        if (entity.mapping.mappedForm.datasources) {
-            String datasource = entity.mapping.mappedForm.datasources.first()
-            if (datasource != 'DEFAULT') {
-                datasourceDefinition = "('$datasource')"
-            }
+        List<String> fetchJoins = getFetchJoins(entity)
+        List<String> findByIdAnnotations = fetchJoins ? ["@EntityGraph(attributePaths = [${fetchJoins.collect { "'$it'" }.join(', ')}])".toString()] : []
+        List<String> findAllAnnotations = new ArrayList<>(findByIdAnnotations)
+        boolean cached = getCache(entity) != null
+        if (cached) {
+            findAllAnnotations.add("@QueryHint(name = 'org.hibernate.cacheable', value = 'true')")
+        }
+
+        List<String> imports = ['io.micronaut.data.annotation.Repository', 'io.micronaut.data.repository.CrudRepository']
+        if (fetchJoins) {
+            imports.add('io.micronaut.data.jpa.annotation.EntityGraph')
+        }
+        if (cached) {
+            imports.add('io.micronaut.data.annotation.QueryHint')
         }
 
         return """
         package $entity.javaClass.package.name$packageSuffix
 
-        import io.micronaut.data.annotation.Repository
-        import io.micronaut.data.repository.CrudRepository
+${imports.sort().collect { "        import $it" }.join('\n')}
 
         @Repository$datasourceDefinition
         interface ${entity.javaClass.simpleName}Repository extends CrudRepository<${entity.javaClass.simpleName}, ${entity.identity.type.simpleName}> {
-
+${printFinders(entity, findByIdAnnotations, findAllAnnotations, '        ')}
         }
         """.stripIndent().trim()
     }
@@ -22,6 +22,7 @@ import groovy.transform.CompileStatic
 import io.micronaut.core.naming.NameUtils
 import org.grails.datastore.mapping.config.Property
 import org.grails.datastore.mapping.model.PersistentProperty
+import org.grails.orm.hibernate.cfg.CacheConfig
 import org.grails.orm.hibernate.cfg.JoinTable
 import org.grails.orm.hibernate.cfg.PropertyConfig
 
@@ -210,6 +211,14 @@ class UnifiedProperty {
         return null
     }
 
+    @SuppressWarnings('Instanceof')
+    CacheConfig getCache() {
+        if (mappingProperty instanceof PropertyConfig && mappingProperty.cache) {
+            return mappingProperty.cache
+        }
+        return null
+    }
+
     private static String toColumnName(String name) {
         return NameUtils.underscoreSeparate(name).toLowerCase()
     }
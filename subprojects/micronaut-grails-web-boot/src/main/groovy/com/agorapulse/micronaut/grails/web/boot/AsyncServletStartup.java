@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import javax.annotation.Nullable;
+import javax.servlet.ServletContext;
+import java.time.Duration;
+
+/**
+ * The state of the application started in the background by {@link MicronautGrailsAppServletInitializer}.
+ *
+ * @see com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration#isAsyncServletStartup()
+ */
+public final class AsyncServletStartup {
+
+    /**
+     * The name of the servlet context attribute holding the startup state.
+     */
+    public static final String ATTRIBUTE = AsyncServletStartup.class.getName();
+
+    /**
+     * Returns the startup state of the application deployed in the given servlet context.
+     *
+     * @param servletContext the servlet context
+     * @return the startup state or <code>null</code> if the application has not been started in the background
+     */
+    @Nullable
+    public static AsyncServletStartup get(ServletContext servletContext) {
+        Object startup = servletContext.getAttribute(ATTRIBUTE);
+        return startup instanceof AsyncServletStartup ? (AsyncServletStartup) startup : null;
+    }
+
+    private final long started = System.nanoTime();
+
+    private volatile Duration startupDuration;
+    private volatile Throwable failure;
+
+    AsyncServletStartup() { }
+
+    /**
+     * @return <code>true</code> if the application is ready to serve the requests
+     */
+    public boolean isReady() {
+        return startupDuration != null && failure == null;
+    }
+
+    /**
+     * @return the time spent by starting the application or <code>null</code> if the application is still starting
+     */
+    @Nullable
+    public Duration getStartupDuration() {
+        return startupDuration;
+    }
+
+    /**
+     * @return the exception which prevented the application from starting or <code>null</code> if there is none
+     */
+    @Nullable
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    void ready() {
+        startupDuration = Duration.ofNanos(System.nanoTime() - started);
+    }
+
+    void failed(Throwable failure) {
+        this.failure = failure;
+        startupDuration = Duration.ofNanos(System.nanoTime() - started);
+    }
+
+}
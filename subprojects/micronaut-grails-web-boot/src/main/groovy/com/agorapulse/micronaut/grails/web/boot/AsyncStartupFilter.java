@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Answers the requests with <code>503 Service Unavailable</code> until the application started in the background
+ * is ready and then dispatches them to the servlets and filters registered by the application.
+ */
+class AsyncStartupFilter implements Filter {
+
+    static final String RETRY_AFTER_SECONDS = "5";
+
+    private final AsyncServletStartup startup;
+    private final DeferredServletContext deferredContext;
+
+    AsyncStartupFilter(AsyncServletStartup startup, DeferredServletContext deferredContext) {
+        this.startup = startup;
+        this.deferredContext = deferredContext;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        // nothing to initialize
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!startup.isReady()) {
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+            httpResponse.sendError(
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                startup.getFailure() == null ? "Application is starting" : "Application failed to start"
+            );
+            return;
+        }
+        deferredContext.dispatch((HttpServletRequest) request, response, chain);
+    }
+
+    @Override
+    public void destroy() {
+        // nothing to destroy
+    }
+
+    /**
+     * Default servlet which supports asynchronous requests as the container's one usually does not. Only reached
+     * if none of the servlets registered by the application matches the request.
+     */
+    static class NotFoundServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+
+    }
+
+}
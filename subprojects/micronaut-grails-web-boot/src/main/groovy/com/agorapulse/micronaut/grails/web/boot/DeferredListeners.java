@@ -0,0 +1,158 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextAttributeEvent;
+import javax.servlet.ServletContextAttributeListener;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.ServletRequestAttributeEvent;
+import javax.servlet.ServletRequestAttributeListener;
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.ServletRequestListener;
+import javax.servlet.http.HttpSessionAttributeListener;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionIdListener;
+import javax.servlet.http.HttpSessionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Listener registered with the servlet container which delegates to the listeners added while the application
+ * is started in the background.
+ * <p>
+ * The servlet context listeners added in the background are initialized immediately as the servlet context
+ * has already been initialized.
+ */
+class DeferredListeners implements ServletContextListener, ServletContextAttributeListener, ServletRequestListener,
+    ServletRequestAttributeListener, HttpSessionListener, HttpSessionAttributeListener, HttpSessionIdListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeferredListeners.class);
+
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+    void add(EventListener listener, ServletContext servletContext) {
+        listeners.add(listener);
+        if (listener instanceof ServletContextListener) {
+            ((ServletContextListener) listener).contextInitialized(new ServletContextEvent(servletContext));
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        List<EventListener> reversed = new ArrayList<>(listeners);
+        Collections.reverse(reversed);
+        for (EventListener listener : reversed) {
+            if (listener instanceof ServletContextListener) {
+                try {
+                    ((ServletContextListener) listener).contextDestroyed(sce);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Exception destroying listener " + listener, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void attributeAdded(ServletContextAttributeEvent event) {
+        fire(ServletContextAttributeListener.class, l -> l.attributeAdded(event));
+    }
+
+    @Override
+    public void attributeRemoved(ServletContextAttributeEvent event) {
+        fire(ServletContextAttributeListener.class, l -> l.attributeRemoved(event));
+    }
+
+    @Override
+    public void attributeReplaced(ServletContextAttributeEvent event) {
+        fire(ServletContextAttributeListener.class, l -> l.attributeReplaced(event));
+    }
+
+    @Override
+    public void requestInitialized(ServletRequestEvent sre) {
+        fire(ServletRequestListener.class, l -> l.requestInitialized(sre));
+    }
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent sre) {
+        fire(ServletRequestListener.class, l -> l.requestDestroyed(sre));
+    }
+
+    @Override
+    public void attributeAdded(ServletRequestAttributeEvent srae) {
+        fire(ServletRequestAttributeListener.class, l -> l.attributeAdded(srae));
+    }
+
+    @Override
+    public void attributeRemoved(ServletRequestAttributeEvent srae) {
+        fire(ServletRequestAttributeListener.class, l -> l.attributeRemoved(srae));
+    }
+
+    @Override
+    public void attributeReplaced(ServletRequestAttributeEvent srae) {
+        fire(ServletRequestAttributeListener.class, l -> l.attributeReplaced(srae));
+    }
+
+    @Override
+    public void sessionCreated(HttpSessionEvent se) {
+        fire(HttpSessionListener.class, l -> l.sessionCreated(se));
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent se) {
+        fire(HttpSessionListener.class, l -> l.sessionDestroyed(se));
+    }
+
+    @Override
+    public void attributeAdded(HttpSessionBindingEvent event) {
+        fire(HttpSessionAttributeListener.class, l -> l.attributeAdded(event));
+    }
+
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        fire(HttpSessionAttributeListener.class, l -> l.attributeRemoved(event));
+    }
+
+    @Override
+    public void attributeReplaced(HttpSessionBindingEvent event) {
+        fire(HttpSessionAttributeListener.class, l -> l.attributeReplaced(event));
+    }
+
+    @Override
+    public void sessionIdChanged(HttpSessionEvent event, String oldSessionId) {
+        fire(HttpSessionIdListener.class, l -> l.sessionIdChanged(event, oldSessionId));
+    }
+
+    private <L extends EventListener> void fire(Class<L> type, Consumer<L> action) {
+        for (EventListener listener : listeners) {
+            if (type.isInstance(listener)) {
+                action.accept(type.cast(listener));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,602 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.FilterRegistration;
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.Servlet;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRegistration;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletSecurityElement;
+import javax.servlet.annotation.MultipartConfig;
+import javax.servlet.annotation.ServletSecurity;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.Part;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.EventListener;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servlet context used while the application is started in the background.
+ * <p>
+ * Servlet containers refuse to register servlets, filters and listeners once the servlet context has been initialized.
+ * This context records them instead and the requests are dispatched to them by {@link AsyncStartupFilter}
+ * once the application is ready. Listeners are delegated to by {@link DeferredListeners}.
+ * Everything else is delegated to the original servlet context.
+ * <p>
+ * Security constraints cannot be applied to the recorded servlets so registering any of them fails the startup.
+ * The multipart requests are parsed by the servlet container and the size limits of the multipart configuration of
+ * the recorded servlet are checked when the parts are read.
+ */
+class DeferredServletContext implements InvocationHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeferredServletContext.class);
+    private static final String MULTIPART = "multipart/";
+
+    private final ServletContext servletContext;
+    private final ServletContext proxy;
+    private final DeferredListeners listeners;
+    private final Map<String, DeferredServlet> servlets = new LinkedHashMap<>();
+    private final Map<String, DeferredFilter> filters = new LinkedHashMap<>();
+    private final List<FilterMapping> filterMappings = new ArrayList<>();
+
+    DeferredServletContext(ServletContext servletContext, DeferredListeners listeners) {
+        this.servletContext = servletContext;
+        this.listeners = listeners;
+        this.proxy = (ServletContext) Proxy.newProxyInstance(
+            DeferredServletContext.class.getClassLoader(),
+            new Class<?>[] { ServletContext.class },
+            this
+        );
+    }
+
+    ServletContext getServletContext() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "addServlet":
+                return addServlet((String) args[0], args[1]);
+            case "addFilter":
+                return addFilter((String) args[0], args[1]);
+            case "addListener":
+                listeners.add(createListener(args[0]), proxy);
+                return null;
+            case "getServletRegistration":
+                return servlets.containsKey(args[0]) ? servlets.get(args[0]) : servletContext.getServletRegistration((String) args[0]);
+            case "getFilterRegistration":
+                return filters.containsKey(args[0]) ? filters.get(args[0]) : servletContext.getFilterRegistration((String) args[0]);
+            case "getServletRegistrations":
+                return merge(servletContext.getServletRegistrations(), servlets);
+            case "getFilterRegistrations":
+                return merge(servletContext.getFilterRegistrations(), filters);
+            case "equals":
+                return target == args[0];
+            case "hashCode":
+                return System.identityHashCode(target);
+            default:
+                try {
+                    return method.invoke(servletContext, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+
+    /**
+     * Initializes the recorded servlets and filters.
+     *
+     * @throws ServletException if any of the servlets or filters fails to initialize
+     */
+    void init() throws ServletException {
+        for (DeferredFilter filter : filters.values()) {
+            filter.filter.init(filter);
+        }
+        List<DeferredServlet> ordered = new ArrayList<>(servlets.values());
+        ordered.sort((a, b) -> Integer.compare(a.loadOnStartup < 0 ? Integer.MAX_VALUE : a.loadOnStartup, b.loadOnStartup < 0 ? Integer.MAX_VALUE : b.loadOnStartup));
+        for (DeferredServlet servlet : ordered) {
+            servlet.servlet.init(servlet);
+        }
+    }
+
+    void destroy() {
+        for (DeferredServlet servlet : servlets.values()) {
+            try {
+                servlet.servlet.destroy();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Exception destroying servlet " + servlet.name, e);
+            }
+        }
+        for (DeferredFilter filter : filters.values()) {
+            try {
+                filter.filter.destroy();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Exception destroying filter " + filter.name, e);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the request to the recorded filters and to the recorded servlet matching the request path.
+     *
+     * @param request the current request
+     * @param response the current response
+     * @param chain the chain of the servlet container used if none of the recorded servlets matches the request
+     */
+    void dispatch(HttpServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        String path = getPath(request);
+        DispatcherType dispatcherType = request.getDispatcherType();
+
+        DeferredServlet servlet = null;
+        String servletPath = null;
+        int bestRank = -1;
+        int bestLength = -1;
+
+        for (DeferredServlet candidate : servlets.values()) {
+            for (String mapping : candidate.mappings) {
+                String matched = match(mapping, path);
+                int rank = rank(mapping);
+                if (matched != null && (rank > bestRank || rank == bestRank && mapping.length() > bestLength)) {
+                    servlet = candidate;
+                    servletPath = matched;
+                    bestRank = rank;
+                    bestLength = mapping.length();
+                }
+            }
+        }
+
+        Set<DeferredFilter> matchingFilters = new LinkedHashSet<>();
+        for (boolean matchAfter : new boolean[] { false, true }) {
+            for (FilterMapping mapping : filterMappings) {
+                if (mapping.matchAfter == matchAfter && mapping.matches(path, servlet == null ? null : servlet.name, dispatcherType)) {
+                    matchingFilters.add(mapping.filter);
+                }
+            }
+        }
+
+        HttpServletRequest target = servlet == null || servletPath.equals(request.getServletPath()) ? request : new MappedRequest(request, servletPath, path);
+        if (servlet != null && isMultipart(request)) {
+            target = new MultipartRequest(target, servlet.name, servlet.multipartConfig);
+        }
+        new DeferredChain(new ArrayList<>(matchingFilters), servlet, chain).doFilter(target, response);
+    }
+
+    private Object addServlet(String name, Object servlet) throws Exception {
+        if (servlets.containsKey(name)) {
+            return null;
+        }
+        DeferredServlet registration = new DeferredServlet(name, instantiate(servlet, Servlet.class));
+
+        // the servlet container applies the annotations of the servlets added programmatically as well
+        ServletSecurity security = registration.servlet.getClass().getAnnotation(ServletSecurity.class);
+        if (security != null) {
+            registration.setServletSecurity(new ServletSecurityElement(security));
+        }
+        MultipartConfig multipartConfig = registration.servlet.getClass().getAnnotation(MultipartConfig.class);
+        if (multipartConfig != null) {
+            registration.setMultipartConfig(new MultipartConfigElement(multipartConfig));
+        }
+
+        servlets.put(name, registration);
+        return registration;
+    }
+
+    private Object addFilter(String name, Object filter) throws Exception {
+        if (filters.containsKey(name)) {
+            return null;
+        }
+        DeferredFilter registration = new DeferredFilter(name, instantiate(filter, Filter.class));
+        filters.put(name, registration);
+        return registration;
+    }
+
+    private EventListener createListener(Object listener) throws Exception {
+        return instantiate(listener, EventListener.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T instantiate(Object instanceOrType, Class<T> type) throws Exception {
+        if (type.isInstance(instanceOrType)) {
+            return type.cast(instanceOrType);
+        }
+        Class<?> implementation = instanceOrType instanceof Class
+            ? (Class<?>) instanceOrType
+            : Class.forName((String) instanceOrType, true, servletContext.getClassLoader());
+        return type.cast(implementation.getDeclaredConstructor().newInstance());
+    }
+
+    private static <R> Map<String, R> merge(Map<String, ? extends R> existing, Map<String, ? extends R> deferred) {
+        Map<String, R> merged = new LinkedHashMap<>(existing);
+        merged.putAll(deferred);
+        return Collections.unmodifiableMap(merged);
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, MULTIPART, 0, MULTIPART.length());
+    }
+
+    private static String getPath(HttpServletRequest request) {
+        if (request.getDispatcherType() == DispatcherType.INCLUDE && request.getAttribute(RequestDispatcher.INCLUDE_SERVLET_PATH) != null) {
+            Object pathInfo = request.getAttribute(RequestDispatcher.INCLUDE_PATH_INFO);
+            return request.getAttribute(RequestDispatcher.INCLUDE_SERVLET_PATH) + (pathInfo == null ? "" : pathInfo.toString());
+        }
+        return request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+    }
+
+    /**
+     * Matches the path against the servlet mapping.
+     *
+     * @param mapping the servlet mapping
+     * @param path the request path
+     * @return the servlet path if the mapping matches or <code>null</code>
+     */
+    static String match(String mapping, String path) {
+        if (mapping.isEmpty()) {
+            return "/".equals(path) ? "" : null;
+        }
+        if (mapping.equals(path) || "/".equals(mapping)) {
+            return path;
+        }
+        if (mapping.endsWith("/*")) {
+            String prefix = mapping.substring(0, mapping.length() - 2);
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return prefix;
+            }
+            return null;
+        }
+        if (mapping.startsWith("*.") && path.endsWith(mapping.substring(1))) {
+            return path;
+        }
+        return null;
+    }
+
+    private static int rank(String mapping) {
+        if ("/".equals(mapping)) {
+            return 0;
+        }
+        if (mapping.startsWith("*.")) {
+            return 1;
+        }
+        if (mapping.endsWith("/*")) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private abstract class DeferredRegistration {
+
+        final String name;
+        final Map<String, String> initParameters = new LinkedHashMap<>();
+        boolean asyncSupported;
+
+        DeferredRegistration(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean setInitParameter(String name, String value) {
+            return initParameters.putIfAbsent(name, value) == null;
+        }
+
+        public String getInitParameter(String name) {
+            return initParameters.get(name);
+        }
+
+        public Set<String> setInitParameters(Map<String, String> initParameters) {
+            Set<String> conflicts = new HashSet<>();
+            initParameters.forEach((key, value) -> {
+                if (!setInitParameter(key, value)) {
+                    conflicts.add(key);
+                }
+            });
+            return conflicts;
+        }
+
+        public Map<String, String> getInitParameters() {
+            return Collections.unmodifiableMap(initParameters);
+        }
+
+        public Enumeration<String> getInitParameterNames() {
+            return Collections.enumeration(initParameters.keySet());
+        }
+
+        public ServletContext getServletContext() {
+            return proxy;
+        }
+
+        public void setAsyncSupported(boolean asyncSupported) {
+            this.asyncSupported = asyncSupported;
+        }
+
+    }
+
+    private final class DeferredServlet extends DeferredRegistration implements ServletRegistration.Dynamic, ServletConfig {
+
+        final Servlet servlet;
+        final Set<String> mappings = new LinkedHashSet<>();
+        int loadOnStartup = -1;
+        String runAsRole;
+        MultipartConfigElement multipartConfig;
+
+        DeferredServlet(String name, Servlet servlet) {
+            super(name);
+            this.servlet = servlet;
+        }
+
+        @Override
+        public String getServletName() {
+            return name;
+        }
+
+        @Override
+        public String getClassName() {
+            return servlet.getClass().getName();
+        }
+
+        @Override
+        public Set<String> addMapping(String... urlPatterns) {
+            Set<String> conflicts = new HashSet<>();
+            for (String pattern : urlPatterns) {
+                if (servlets.values().stream().anyMatch(s -> s.mappings.contains(pattern))) {
+                    conflicts.add(pattern);
+                }
+            }
+            if (conflicts.isEmpty()) {
+                mappings.addAll(Arrays.asList(urlPatterns));
+            }
+            return conflicts;
+        }
+
+        @Override
+        public Collection<String> getMappings() {
+            return Collections.unmodifiableSet(mappings);
+        }
+
+        @Override
+        public String getRunAsRole() {
+            return runAsRole;
+        }
+
+        @Override
+        public void setRunAsRole(String roleName) {
+            this.runAsRole = roleName;
+        }
+
+        @Override
+        public void setLoadOnStartup(int loadOnStartup) {
+            this.loadOnStartup = loadOnStartup;
+        }
+
+        @Override
+        public Set<String> setServletSecurity(ServletSecurityElement constraint) {
+            throw new IllegalStateException("Security constraints of servlet " + name + " cannot be applied when the application is started in the background."
+                + " Disable the asynchronous servlet startup or secure the servlet using a filter.");
+        }
+
+        @Override
+        public void setMultipartConfig(MultipartConfigElement multipartConfig) {
+            this.multipartConfig = multipartConfig;
+        }
+
+    }
+
+    private final class DeferredFilter extends DeferredRegistration implements FilterRegistration.Dynamic, FilterConfig {
+
+        final Filter filter;
+
+        DeferredFilter(String name, Filter filter) {
+            super(name);
+            this.filter = filter;
+        }
+
+        @Override
+        public String getFilterName() {
+            return name;
+        }
+
+        @Override
+        public String getClassName() {
+            return filter.getClass().getName();
+        }
+
+        @Override
+        public void addMappingForServletNames(EnumSet<DispatcherType> dispatcherTypes, boolean isMatchAfter, String... servletNames) {
+            filterMappings.add(new FilterMapping(this, dispatcherTypes, isMatchAfter, Collections.emptyList(), Arrays.asList(servletNames)));
+        }
+
+        @Override
+        public Collection<String> getServletNameMappings() {
+            Set<String> names = new LinkedHashSet<>();
+            filterMappings.stream().filter(m -> m.filter == this).forEach(m -> names.addAll(m.servletNames));
+            return names;
+        }
+
+        @Override
+        public void addMappingForUrlPatterns(EnumSet<DispatcherType> dispatcherTypes, boolean isMatchAfter, String... urlPatterns) {
+            filterMappings.add(new FilterMapping(this, dispatcherTypes, isMatchAfter, Arrays.asList(urlPatterns), Collections.emptyList()));
+        }
+
+        @Override
+        public Collection<String> getUrlPatternMappings() {
+            Set<String> patterns = new LinkedHashSet<>();
+            filterMappings.stream().filter(m -> m.filter == this).forEach(m -> patterns.addAll(m.urlPatterns));
+            return patterns;
+        }
+
+    }
+
+    private static final class FilterMapping {
+
+        final DeferredFilter filter;
+        final Set<DispatcherType> dispatcherTypes;
+        final boolean matchAfter;
+        final List<String> urlPatterns;
+        final List<String> servletNames;
+
+        FilterMapping(DeferredFilter filter, EnumSet<DispatcherType> dispatcherTypes, boolean matchAfter, List<String> urlPatterns, List<String> servletNames) {
+            this.filter = filter;
+            this.dispatcherTypes = dispatcherTypes == null ? EnumSet.of(DispatcherType.REQUEST) : dispatcherTypes;
+            this.matchAfter = matchAfter;
+            this.urlPatterns = urlPatterns;
+            this.servletNames = servletNames;
+        }
+
+        boolean matches(String path, String servletName, DispatcherType dispatcherType) {
+            if (!dispatcherTypes.contains(dispatcherType)) {
+                return false;
+            }
+            if (servletName != null && (servletNames.contains(servletName) || servletNames.contains("*"))) {
+                return true;
+            }
+            return urlPatterns.stream().anyMatch(pattern -> "/".equals(pattern) ? "/".equals(path) : match(pattern, path) != null);
+        }
+
+    }
+
+    private static final class DeferredChain implements FilterChain {
+
+        private final List<DeferredFilter> filters;
+        private final DeferredServlet servlet;
+        private final FilterChain containerChain;
+        private int position;
+
+        DeferredChain(List<DeferredFilter> filters, DeferredServlet servlet, FilterChain containerChain) {
+            this.filters = filters;
+            this.servlet = servlet;
+            this.containerChain = containerChain;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (position < filters.size()) {
+                filters.get(position++).filter.doFilter(request, response, this);
+                return;
+            }
+            if (servlet != null) {
+                servlet.servlet.service(request, response);
+                return;
+            }
+            containerChain.doFilter(request, response);
+        }
+
+    }
+
+    private static final class MultipartRequest extends HttpServletRequestWrapper {
+
+        private final String servletName;
+        private final MultipartConfigElement multipartConfig;
+
+        MultipartRequest(HttpServletRequest request, String servletName, MultipartConfigElement multipartConfig) {
+            super(request);
+            this.servletName = servletName;
+            this.multipartConfig = multipartConfig;
+        }
+
+        @Override
+        public Collection<Part> getParts() throws IOException, ServletException {
+            if (multipartConfig == null) {
+                throw new IllegalStateException("Unable to process parts as no multipart configuration has been provided for servlet " + servletName);
+            }
+
+            long maxRequestSize = multipartConfig.getMaxRequestSize();
+            if (maxRequestSize >= 0 && getContentLengthLong() > maxRequestSize) {
+                throw new IllegalStateException("The request size " + getContentLengthLong() + " exceeds the maximum of " + maxRequestSize + " bytes of servlet " + servletName);
+            }
+
+            Collection<Part> parts = super.getParts();
+
+            long maxFileSize = multipartConfig.getMaxFileSize();
+            for (Part part : parts) {
+                if (maxFileSize >= 0 && part.getSize() > maxFileSize) {
+                    throw new IllegalStateException("The part " + part.getName() + " exceeds the maximum of " + maxFileSize + " bytes of servlet " + servletName);
+                }
+            }
+
+            return parts;
+        }
+
+        @Override
+        public Part getPart(String name) throws IOException, ServletException {
+            for (Part part : getParts()) {
+                if (part.getName().equals(name)) {
+                    return part;
+                }
+            }
+            return null;
+        }
+
+    }
+
+    private static final class MappedRequest extends HttpServletRequestWrapper {
+
+        private final String servletPath;
+        private final String pathInfo;
+
+        MappedRequest(HttpServletRequest request, String servletPath, String path) {
+            super(request);
+            this.servletPath = servletPath;
+            this.pathInfo = path.length() > servletPath.length() ? path.substring(servletPath.length()) : null;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return pathInfo;
+        }
+
+    }
+
+}
@@ -18,20 +18,149 @@
 package com.agorapulse.micronaut.grails.web.boot;
 
 import com.agorapulse.micronaut.grails.MicronautGrailsAppBuilder;
+import com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRegistration;
+import java.util.EnumSet;
 
 /**
  * Ensure a {@link com.agorapulse.micronaut.grails.MicronautGrailsApp} in constructed during servlet initialization.
  *
  * Inspired by {@code GrailsAppServletInitializer}
  *
+ * If {@link MicronautGrailsAutoConfiguration#isAsyncServletStartup()} is enabled then the application is started
+ * in the background and the requests are answered with <code>503 Service Unavailable</code> until it is ready.
+ * The servlets, filters and listeners registered by the application are then served by {@link AsyncStartupFilter}
+ * as the servlet container no longer accepts them. The startup fails if any of them requires security constraints.
+ * The servlet container parses the multipart requests for all of them and the size limits of their own multipart
+ * configuration are checked when the parts are read.
  */
 public abstract class MicronautGrailsAppServletInitializer extends SpringBootServletInitializer {
 
+    private static final String STARTUP_THREAD_NAME = "micronaut-grails-startup";
+    private static final String STARTUP_FILTER_NAME = "micronautGrailsAsyncStartupFilter";
+    private static final String STARTUP_SERVLET_NAME = "micronautGrailsAsyncStartupServlet";
+
+    @Override
+    public void onStartup(ServletContext servletContext) throws ServletException {
+        if (!isAsyncServletStartup()) {
+            super.onStartup(servletContext);
+            return;
+        }
+
+        this.logger = LogFactory.getLog(getClass());
+
+        AsyncServletStartup startup = new AsyncServletStartup();
+        DeferredListeners listeners = new DeferredListeners();
+        DeferredServletContext deferredContext = new DeferredServletContext(servletContext, listeners);
+        StartupThread thread = new StartupThread(startup, deferredContext);
+
+        servletContext.setAttribute(AsyncServletStartup.ATTRIBUTE, startup);
+
+        FilterRegistration.Dynamic filter = servletContext.addFilter(STARTUP_FILTER_NAME, new AsyncStartupFilter(startup, deferredContext));
+        filter.setAsyncSupported(true);
+        filter.addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), false, "/*");
+
+        ServletRegistration.Dynamic servlet = servletContext.addServlet(STARTUP_SERVLET_NAME, new AsyncStartupFilter.NotFoundServlet());
+        servlet.setAsyncSupported(true);
+        servlet.setMultipartConfig(new MultipartConfigElement(""));
+        servlet.addMapping("/");
+
+        servletContext.addListener(new ServletContextListener() {
+            @Override
+            public void contextInitialized(ServletContextEvent sce) {
+                thread.start();
+            }
+
+            @Override
+            public void contextDestroyed(ServletContextEvent sce) {
+                thread.shutdown();
+            }
+        });
+        servletContext.addListener(listeners);
+    }
+
     @Override
     protected SpringApplicationBuilder createSpringApplicationBuilder() {
         return new MicronautGrailsAppBuilder();
     }
 
+    private boolean isAsyncServletStartup() {
+        return configure(new SpringApplicationBuilder())
+            .application()
+            .getAllSources()
+            .stream()
+            .filter(s -> s instanceof Class<?> && MicronautGrailsAutoConfiguration.class.isAssignableFrom((Class<?>) s))
+            .findFirst()
+            .map(s -> BeanUtils.instantiateClass((Class<?>) s, MicronautGrailsAutoConfiguration.class).isAsyncServletStartup())
+            .orElse(false);
+    }
+
+    private final class StartupThread extends Thread {
+
+        private final AsyncServletStartup startup;
+        private final DeferredServletContext deferredContext;
+
+        private WebApplicationContext applicationContext;
+        private boolean destroyed;
+
+        StartupThread(AsyncServletStartup startup, DeferredServletContext deferredContext) {
+            super(STARTUP_THREAD_NAME);
+            this.startup = startup;
+            this.deferredContext = deferredContext;
+            setDaemon(true);
+            setContextClassLoader(Thread.currentThread().getContextClassLoader());
+        }
+
+        @Override
+        public void run() {
+            try {
+                WebApplicationContext context = createRootApplicationContext(deferredContext.getServletContext());
+
+                synchronized (this) {
+                    applicationContext = context;
+                    if (destroyed) {
+                        close();
+                        return;
+                    }
+                }
+
+                deferredContext.init();
+                startup.ready();
+                logger.info("Application started in the background in " + startup.getStartupDuration().toMillis() + " ms");
+            } catch (Throwable th) {
+                startup.failed(th);
+                logger.error("Application failed to start in the background after " + startup.getStartupDuration().toMillis() + " ms", th);
+            }
+        }
+
+        synchronized void shutdown() {
+            destroyed = true;
+            if (applicationContext != null) {
+                close();
+            }
+        }
+
+        private void close() {
+            deferredContext.destroy();
+            if (applicationContext instanceof ConfigurableApplicationContext) {
+                ((ConfigurableApplicationContext) applicationContext).close();
+            }
+        }
+
+    }
+
 }
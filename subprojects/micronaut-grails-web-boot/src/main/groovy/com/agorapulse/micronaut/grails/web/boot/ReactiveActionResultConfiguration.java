@@ -0,0 +1,46 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers {@link ReactiveActionResultTransformer} so the controller actions can return reactive types.
+ * <p>
+ * Enabled by setting <code>micronaut.grails.reactive-actions.enabled</code> property to <code>true</code>.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.grails.web.servlet.mvc.ActionResultTransformer")
+@ConditionalOnProperty(name = "micronaut.grails.reactive-actions.enabled", havingValue = "true")
+public class ReactiveActionResultConfiguration {
+
+    @Bean
+    ReactiveActionResultTransformer reactiveActionResultTransformer(
+        ObjectProvider<ObjectMapper> objectMapper,
+        @Value("${micronaut.grails.reactive-actions.timeout:30000}") long timeout
+    ) {
+        return new ReactiveActionResultTransformer(objectMapper.getIfUnique(ObjectMapper::new), timeout);
+    }
+
+}
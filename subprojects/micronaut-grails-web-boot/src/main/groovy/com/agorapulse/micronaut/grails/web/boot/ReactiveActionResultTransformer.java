@@ -0,0 +1,327 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.core.async.publisher.Publishers;
+import org.grails.web.servlet.mvc.ActionResultTransformer;
+import org.grails.web.servlet.mvc.GrailsWebRequest;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Completes the reactive results of the controller actions such as {@link Publisher} or {@link CompletionStage}
+ * using the Servlet asynchronous processing so the container thread is released while waiting for the result.
+ * <p>
+ * Character sequences are rendered as plain text, any other values are rendered as JSON. Publishers which
+ * can emit more than one item are streamed as JSON arrays, the items are requested one by one and each of them is
+ * written as soon as it is emitted so the items are never buffered.
+ */
+public class ReactiveActionResultTransformer implements ActionResultTransformer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveActionResultTransformer.class);
+    private static final String JSON = "application/json;charset=UTF-8";
+
+    private final ObjectMapper objectMapper;
+    private final long timeout;
+
+    public ReactiveActionResultTransformer(ObjectMapper objectMapper, long timeout) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Object transformActionResult(GrailsWebRequest webRequest, String viewName, Object actionResult) {
+        if (actionResult == null) {
+            return null;
+        }
+
+        if (actionResult instanceof CompletionStage) {
+            ResultWriter writer = startAsync(webRequest);
+            ((CompletionStage<?>) actionResult).whenComplete((value, error) -> {
+                if (error != null) {
+                    writer.fail(error);
+                } else {
+                    writer.write(value);
+                }
+            });
+            return null;
+        }
+
+        if (actionResult instanceof Publisher || Publishers.isConvertibleToPublisher(actionResult)) {
+            boolean single = Publishers.isSingle(actionResult.getClass());
+            Publisher<?> publisher = Publishers.convertPublisher(actionResult, Publisher.class);
+            ResultWriter writer = startAsync(webRequest);
+            publisher.subscribe(single ? new SingleSubscriber(writer) : new StreamingSubscriber(writer));
+            return null;
+        }
+
+        return actionResult;
+    }
+
+    private ResultWriter startAsync(GrailsWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getCurrentRequest();
+        webRequest.setRenderView(false);
+
+        AsyncContext asyncContext = request.startAsync(request, webRequest.getCurrentResponse());
+        if (timeout > 0) {
+            asyncContext.setTimeout(timeout);
+        }
+
+        ResultWriter writer = new ResultWriter(asyncContext, request.getRequestURI());
+        asyncContext.addListener(writer);
+        return writer;
+    }
+
+    private class ResultWriter implements AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final String uri;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile Subscription subscription;
+        private boolean streaming;
+
+        ResultWriter(AsyncContext asyncContext, String uri) {
+            this.asyncContext = asyncContext;
+            this.uri = uri;
+        }
+
+        void write(Object value) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            try {
+                if (value == null) {
+                    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                } else if (value instanceof CharSequence) {
+                    writeBody(response, "text/plain;charset=UTF-8", value.toString().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    writeBody(response, JSON, objectMapper.writeValueAsBytes(value));
+                }
+            } catch (IOException e) {
+                LOGGER.error("Exception writing reactive result of " + uri, e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        /**
+         * Writes the next item of the streamed JSON array.
+         *
+         * @param item the item to write
+         * @return <code>true</code> if more items can be written
+         */
+        boolean writeItem(Object item) {
+            if (completed.get()) {
+                return false;
+            }
+
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(item);
+                if (!streaming) {
+                    streaming = true;
+                    response.setContentType(JSON);
+                    response.getOutputStream().write('[');
+                } else {
+                    response.getOutputStream().write(',');
+                }
+                response.getOutputStream().write(json);
+                return true;
+            } catch (IOException e) {
+                if (completed.compareAndSet(false, true)) {
+                    LOGGER.error("Exception streaming reactive result of " + uri, e);
+                    asyncContext.complete();
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Closes the streamed JSON array.
+         */
+        void finish() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            try {
+                if (streaming) {
+                    response.getOutputStream().write(']');
+                } else {
+                    writeBody(response, JSON, new byte[] { '[', ']' });
+                }
+            } catch (IOException e) {
+                LOGGER.error("Exception writing reactive result of " + uri, e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        void fail(Throwable error) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            LOGGER.error("Exception resolving reactive result of " + uri, error);
+
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            try {
+                if (!response.isCommitted()) {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Exception sending error response for " + uri, e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            LOGGER.warn("Reactive result of " + uri + " has not been resolved in time");
+            cancel();
+
+            HttpServletResponse response = (HttpServletResponse) event.getAsyncContext().getResponse();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            event.getAsyncContext().complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            completed.set(true);
+            cancel();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // nothing to do
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // nothing to do
+        }
+
+        private void cancel() {
+            Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void writeBody(HttpServletResponse response, String contentType, byte[] body) throws IOException {
+            response.setContentType(contentType);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+    }
+
+    private static class SingleSubscriber implements Subscriber<Object> {
+
+        private final ResultWriter writer;
+        private Object item;
+
+        SingleSubscriber(ResultWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            writer.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            this.item = item;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            writer.fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            writer.write(item);
+        }
+
+    }
+
+    private static class StreamingSubscriber implements Subscriber<Object> {
+
+        private final ResultWriter writer;
+        private Subscription subscription;
+
+        StreamingSubscriber(ResultWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            writer.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (writer.writeItem(item)) {
+                subscription.request(1);
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            writer.fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            writer.finish();
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot;
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder;
+import com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration;
+import com.agorapulse.micronaut.grails.VirtualThreads;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Lets the embedded Tomcat handle the requests using virtual threads
+ * if {@link MicronautGrailsAutoConfiguration#isVirtualThreads()} is enabled.
+ * <p>
+ * Tomcat does not stop the executors it has not created so the executors are shut down when the context is closed.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+public class VirtualThreadsTomcatConfiguration implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadsTomcatConfiguration.class);
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadsTomcatCustomizer(ObjectProvider<MicronautContextHolder> holder) {
+        return factory -> {
+            MicronautContextHolder contextHolder = holder.getIfAvailable();
+            if (contextHolder == null) {
+                return;
+            }
+
+            boolean enabled = contextHolder.getContext()
+                .findBean(MicronautGrailsAutoConfiguration.class)
+                .map(MicronautGrailsAutoConfiguration::isVirtualThreads)
+                .orElse(false);
+
+            if (!enabled) {
+                return;
+            }
+
+            if (!VirtualThreads.isSupported()) {
+                LOGGER.warn("Virtual threads are not supported by Java " + System.getProperty("java.version") + ", Tomcat keeps using platform threads");
+                return;
+            }
+
+            factory.addConnectorCustomizers(connector -> {
+                ProtocolHandler handler = connector.getProtocolHandler();
+                if (handler instanceof AbstractProtocol) {
+                    ExecutorService executor = VirtualThreads.newExecutor();
+                    executors.add(executor);
+                    ((AbstractProtocol<?>) handler).setExecutor(executor);
+                    LOGGER.info("Tomcat connector " + connector + " is using virtual threads");
+                }
+            });
+        };
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        executors.clear();
+    }
+
+}
@@ -0,0 +1,428 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot
+
+import groovy.transform.CompileDynamic
+import org.springframework.mock.web.MockFilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.mock.web.MockMultipartHttpServletRequest
+import org.springframework.mock.web.MockPart
+import org.springframework.mock.web.MockServletContext
+import spock.lang.Specification
+
+import javax.servlet.DispatcherType
+import javax.servlet.Filter
+import javax.servlet.FilterChain
+import javax.servlet.FilterConfig
+import javax.servlet.HttpConstraintElement
+import javax.servlet.MultipartConfigElement
+import javax.servlet.RequestDispatcher
+import javax.servlet.ServletContext
+import javax.servlet.ServletContextEvent
+import javax.servlet.ServletContextListener
+import javax.servlet.ServletException
+import javax.servlet.ServletRequest
+import javax.servlet.ServletRequestEvent
+import javax.servlet.ServletRegistration
+import javax.servlet.ServletRequestListener
+import javax.servlet.ServletResponse
+import javax.servlet.ServletSecurityElement
+import javax.servlet.annotation.HttpConstraint
+import javax.servlet.annotation.ServletSecurity
+import javax.servlet.http.HttpServlet
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import javax.servlet.http.Part
+
+/**
+ * Tests for deferred servlet context and listeners.
+ */
+@CompileDynamic
+class DeferredServletContextSpec extends Specification {
+
+    MockServletContext servletContext = new MockServletContext()
+    DeferredListeners listeners = new DeferredListeners()
+    DeferredServletContext deferred = new DeferredServletContext(servletContext, listeners)
+    AsyncServletStartup startup = new AsyncServletStartup()
+    AsyncStartupFilter gate = new AsyncStartupFilter(startup, deferred)
+
+    RecordingServlet api = new RecordingServlet('api')
+    RecordingServlet pages = new RecordingServlet('pages')
+    RecordingServlet fallback = new RecordingServlet('fallback')
+    RecordingServlet special = new RecordingServlet('special')
+    RecordingServlet admin = new RecordingServlet('admin')
+    RecordingServlet root = new RecordingServlet('root')
+    RecordingServlet uploads = new RecordingServlet('uploads')
+
+    void setup() {
+        ServletContext context = deferred.servletContext
+        context.addServlet('api', api).addMapping('/api/*')
+        context.addServlet('pages', pages).addMapping('*.gsp')
+        context.addServlet('fallback', fallback).addMapping('/')
+        context.addServlet('special', special).addMapping('/api/books/special')
+        context.addServlet('admin', admin).addMapping('/api/admin/*')
+        context.addServlet('root', root).addMapping('')
+        ServletRegistration.Dynamic uploadsRegistration = context.addServlet('uploads', uploads)
+        uploadsRegistration.addMapping('/uploads/*')
+        uploadsRegistration.multipartConfig = new MultipartConfigElement('', 10, 100, 0)
+        context.addFilter('requests', new RecordingFilter('requests'))
+            .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, '/*')
+        context.addFilter('includes', new RecordingFilter('includes'))
+            .addMappingForUrlPatterns(EnumSet.of(DispatcherType.INCLUDE), false, '/*')
+        context.addFilter('forwards', new RecordingFilter('forwards'))
+            .addMappingForServletNames(EnumSet.of(DispatcherType.FORWARD), false, 'api')
+        deferred.init()
+    }
+
+    void 'servlets and filters are registered in the deferred context'() {
+        expect:
+            deferred.servletContext.getServletRegistration('api').mappings == ['/api/*'] as Set
+            deferred.servletContext.servletRegistrations.keySet().containsAll(['api', 'pages', 'fallback'])
+            deferred.servletContext.getFilterRegistration('forwards').servletNameMappings == ['api'] as Set
+            api.servletConfig.servletContext.is(deferred.servletContext)
+    }
+
+    void 'mapping #mapping matches #path with servlet path #servletPath'() {
+        expect:
+            DeferredServletContext.match(mapping, path) == servletPath
+        where:
+            mapping       | path              | servletPath
+            '/api/books'  | '/api/books'      | '/api/books'
+            '/api/*'      | '/api/books'      | '/api'
+            '/api/*'      | '/api'            | '/api'
+            '/api/*'      | '/apis'           | null
+            '/*'          | '/anything'       | ''
+            '*.gsp'       | '/views/show.gsp' | '/views/show.gsp'
+            '*.gsp'       | '/views/show.jsp' | null
+            '*.gsp'       | '/show.gsp/edit'  | null
+            '/'           | '/anything'       | '/anything'
+            ''            | '/'               | ''
+            ''            | '/anything'       | null
+    }
+
+    void 'request for #path is dispatched to #servlet'() {
+        given:
+            MockHttpServletRequest request = request(path)
+            MockHttpServletResponse response = new MockHttpServletResponse()
+        when:
+            deferred.dispatch(request, response, new MockFilterChain())
+        then:
+            response.contentAsString == servlet
+            request.getAttribute(RecordingFilter.FILTERS) == ['requests']
+        where:
+            path              | servlet
+            '/api/books'      | 'api'
+            '/views/show.gsp' | 'pages'
+            '/api/show.gsp'   | 'api'
+            '/other'          | 'fallback'
+            '/show.gsp/edit'  | 'fallback'
+    }
+
+    void 'request for #path is dispatched to #servlet with servlet path #servletPath and path info #pathInfo'() {
+        given:
+            MockHttpServletResponse response = new MockHttpServletResponse()
+        when:
+            deferred.dispatch(request(path), response, new MockFilterChain())
+        then:
+            response.contentAsString == servlet
+            this."$servlet".servletPath == servletPath
+            this."$servlet".pathInfo == pathInfo
+        where:
+            path                  | servlet    | servletPath           | pathInfo
+            '/api/books/1'        | 'api'      | '/api'                | '/books/1'
+            '/api'                | 'api'      | '/api'                | null
+            '/api/books/special'  | 'special'  | '/api/books/special'  | null
+            '/api/books/special/' | 'api'      | '/api'                | '/books/special/'
+            '/api/admin/users'    | 'admin'    | '/api/admin'          | '/users'
+            '/api/administrator'  | 'api'      | '/api'                | '/administrator'
+            '/views/show.gsp'     | 'pages'    | '/views/show.gsp'     | null
+            '/other'              | 'fallback' | '/other'              | null
+            '/'                   | 'root'     | ''                    | '/'
+    }
+
+    void 'servlet security constraints fail the registration'() {
+        when:
+            deferred.servletContext.addServlet('secured', new RecordingServlet('secured'))
+                .setServletSecurity(new ServletSecurityElement(new HttpConstraintElement(ServletSecurity.EmptyRoleSemantic.DENY)))
+        then:
+            thrown(IllegalStateException)
+    }
+
+    void 'servlet security annotation fails the registration'() {
+        when:
+            deferred.servletContext.addServlet('secured', new SecuredServlet())
+        then:
+            thrown(IllegalStateException)
+    }
+
+    void 'multipart request to servlet without multipart configuration cannot read the parts'() {
+        given:
+            MockHttpServletRequest request = multipartRequest('/api/books', 5)
+        when:
+            deferred.dispatch(request, new MockHttpServletResponse(), new MockFilterChain())
+            api.request.parts
+        then:
+            thrown(IllegalStateException)
+    }
+
+    void 'multipart request is checked against the multipart configuration of the servlet'() {
+        given:
+            MockHttpServletRequest request = multipartRequest('/uploads/file', 10)
+        when:
+            deferred.dispatch(request, new MockHttpServletResponse(), new MockFilterChain())
+            Collection<Part> parts = uploads.request.parts
+        then:
+            parts*.name == ['file']
+        when:
+            request.content = new byte[1000]
+            uploads.request.parts
+        then:
+            thrown(IllegalStateException)
+    }
+
+    void 'multipart part exceeding the maximum file size is rejected'() {
+        given:
+            MockHttpServletRequest request = multipartRequest('/uploads/file', 11)
+        when:
+            deferred.dispatch(request, new MockHttpServletResponse(), new MockFilterChain())
+            uploads.request.parts
+        then:
+            thrown(IllegalStateException)
+    }
+
+    void 'include is dispatched using the include attributes'() {
+        given:
+            MockHttpServletRequest request = request('/other')
+            request.dispatcherType = DispatcherType.INCLUDE
+            request.setAttribute(RequestDispatcher.INCLUDE_SERVLET_PATH, '/views/show.gsp')
+            MockHttpServletResponse response = new MockHttpServletResponse()
+        when:
+            deferred.dispatch(request, response, new MockFilterChain())
+        then:
+            response.contentAsString == 'pages'
+            request.getAttribute(RecordingFilter.FILTERS) == ['includes']
+    }
+
+    void 'forward is filtered by the servlet name mapping'() {
+        given:
+            MockHttpServletRequest request = request('/api/books')
+            request.dispatcherType = DispatcherType.FORWARD
+            MockHttpServletResponse response = new MockHttpServletResponse()
+        when:
+            deferred.dispatch(request, response, new MockFilterChain())
+        then:
+            response.contentAsString == 'api'
+            request.getAttribute(RecordingFilter.FILTERS) == ['forwards']
+    }
+
+    void 'container chain is used if no servlet matches'() {
+        given:
+            DeferredServletContext empty = new DeferredServletContext(servletContext, listeners)
+            MockFilterChain chain = new MockFilterChain()
+            MockHttpServletRequest request = request('/other')
+        when:
+            empty.dispatch(request, new MockHttpServletResponse(), chain)
+        then:
+            chain.request.is(request)
+    }
+
+    void 'requests are answered with 503 until the application is ready'() {
+        given:
+            MockHttpServletResponse response = new MockHttpServletResponse()
+        when:
+            gate.doFilter(request('/api/books'), response, new MockFilterChain())
+        then:
+            response.status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+            response.getHeader('Retry-After') == AsyncStartupFilter.RETRY_AFTER_SECONDS
+            response.errorMessage == 'Application is starting'
+            !api.servletPath
+    }
+
+    void 'requests are answered with 503 if the application failed to start'() {
+        given:
+            MockHttpServletResponse response = new MockHttpServletResponse()
+            startup.failed(new IllegalStateException('failed'))
+        when:
+            gate.doFilter(request('/api/books'), response, new MockFilterChain())
+        then:
+            response.status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+            response.errorMessage == 'Application failed to start'
+    }
+
+    void 'requests are dispatched once the application is ready'() {
+        given:
+            MockHttpServletResponse response = new MockHttpServletResponse()
+            startup.ready()
+        when:
+            gate.doFilter(request('/api/books'), response, new MockFilterChain())
+        then:
+            response.status == HttpServletResponse.SC_OK
+            response.contentAsString == 'api'
+    }
+
+    void 'servlets and filters are destroyed'() {
+        when:
+            deferred.destroy()
+        then:
+            api.destroyed
+            fallback.destroyed
+    }
+
+    void 'listeners added in the background are notified'() {
+        given:
+            RecordingListener first = new RecordingListener()
+            RecordingListener second = new RecordingListener()
+            List<RecordingListener> destroyed = []
+            first.onDestroy = { destroyed << first }
+            second.onDestroy = { destroyed << second }
+        when:
+            deferred.servletContext.addListener(first)
+            deferred.servletContext.addListener(second)
+        then:
+            first.initialized
+            second.initialized
+        when:
+            listeners.requestInitialized(new ServletRequestEvent(servletContext, request('/api/books')))
+        then:
+            first.requests == 1
+            second.requests == 1
+        when:
+            listeners.contextDestroyed(new ServletContextEvent(servletContext))
+        then:
+            destroyed == [second, first]
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, 'GET', path)
+        request.servletPath = path
+        return request
+    }
+
+    private MockMultipartHttpServletRequest multipartRequest(String path, int size) {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest(servletContext)
+        request.requestURI = path
+        request.servletPath = path
+        request.contentType = 'multipart/form-data; boundary=test'
+        request.content = new byte[size]
+        request.addPart(new MockPart('file', new byte[size]))
+        return request
+    }
+
+}
+
+@CompileDynamic
+class RecordingServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L
+
+    final String name
+    HttpServletRequest request
+    String servletPath
+    String pathInfo
+    boolean destroyed
+
+    RecordingServlet(String name) {
+        this.name = name
+    }
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        request = req
+        servletPath = req.servletPath
+        pathInfo = req.pathInfo
+        resp.writer.write(name)
+    }
+
+    @Override
+    void destroy() {
+        destroyed = true
+    }
+
+}
+
+@CompileDynamic
+@ServletSecurity(@HttpConstraint(rolesAllowed = 'admin'))
+class SecuredServlet extends RecordingServlet {
+
+    private static final long serialVersionUID = 1L
+
+    SecuredServlet() {
+        super('secured')
+    }
+
+}
+
+@CompileDynamic
+class RecordingFilter implements Filter {
+
+    static final String FILTERS = 'recordedFilters'
+
+    final String name
+
+    RecordingFilter(String name) {
+        this.name = name
+    }
+
+    @Override
+    void init(FilterConfig filterConfig) {
+        // nothing to initialize
+    }
+
+    @Override
+    void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        List<String> filters = (request.getAttribute(FILTERS) ?: []) as List<String>
+        request.setAttribute(FILTERS, filters + name)
+        chain.doFilter(request, response)
+    }
+
+    @Override
+    void destroy() {
+        // nothing to destroy
+    }
+
+}
+
+@CompileDynamic
+class RecordingListener implements ServletContextListener, ServletRequestListener {
+
+    boolean initialized
+    int requests
+    Closure<?> onDestroy = { }
+
+    @Override
+    void contextInitialized(ServletContextEvent sce) {
+        initialized = true
+    }
+
+    @Override
+    void contextDestroyed(ServletContextEvent sce) {
+        onDestroy.call()
+    }
+
+    @Override
+    void requestInitialized(ServletRequestEvent sre) {
+        requests++
+    }
+
+    @Override
+    void requestDestroyed(ServletRequestEvent sre) {
+        // nothing to do
+    }
+
+}
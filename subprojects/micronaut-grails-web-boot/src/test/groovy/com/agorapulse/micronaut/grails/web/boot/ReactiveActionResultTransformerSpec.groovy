@@ -0,0 +1,246 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import groovy.transform.CompileDynamic
+import org.grails.web.servlet.mvc.GrailsWebRequest
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.core.env.MapPropertySource
+import org.springframework.mock.web.MockAsyncContext
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.mock.web.MockServletContext
+import spock.lang.Specification
+
+import javax.servlet.AsyncEvent
+import javax.servlet.http.HttpServletResponse
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Tests for reactive action result transformer.
+ */
+@CompileDynamic
+class ReactiveActionResultTransformerSpec extends Specification {
+
+    private static final long TIMEOUT = 1000
+    private static final String ENABLED = 'micronaut.grails.reactive-actions.enabled'
+
+    MockServletContext servletContext = new MockServletContext()
+    MockHttpServletRequest request = new MockHttpServletRequest(servletContext, 'GET', '/reactive')
+    MockHttpServletResponse response = new MockHttpServletResponse()
+    GrailsWebRequest webRequest
+
+    ReactiveActionResultTransformer transformer = new ReactiveActionResultTransformer(new ObjectMapper(), TIMEOUT)
+
+    void setup() {
+        request.asyncSupported = true
+        webRequest = new GrailsWebRequest(request, response, servletContext)
+    }
+
+    void 'plain results are returned unchanged'() {
+        expect:
+            transformer.transformActionResult(webRequest, 'index', [name: 'plain']) == [name: 'plain']
+            !request.asyncStarted
+    }
+
+    void 'completion stage is rendered as json once completed'() {
+        given:
+            CompletableFuture<Object> future = new CompletableFuture<>()
+        when:
+            Object result = transformer.transformActionResult(webRequest, 'index', future)
+        then:
+            result == null
+            request.asyncStarted
+            !webRequest.renderView
+            response.contentAsString == ''
+        when:
+            future.complete([name: 'future'])
+        then:
+            !request.asyncStarted
+            response.contentType == 'application/json;charset=UTF-8'
+            response.contentAsString == '{"name":"future"}'
+    }
+
+    void 'completion stage with #value is rendered with status #status'() {
+        when:
+            transformer.transformActionResult(webRequest, 'index', CompletableFuture.completedFuture(value))
+        then:
+            !request.asyncStarted
+            response.status == status
+            response.contentAsString == content
+        where:
+            value   | status                              | content
+            'hello' | HttpServletResponse.SC_OK           | 'hello'
+            null    | HttpServletResponse.SC_NO_CONTENT   | ''
+    }
+
+    void 'failed completion stage is rendered as server error'() {
+        given:
+            CompletableFuture<Object> future = new CompletableFuture<>()
+            future.completeExceptionally(new IllegalStateException('failed'))
+        when:
+            transformer.transformActionResult(webRequest, 'index', future)
+        then:
+            !request.asyncStarted
+            response.status == HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+    }
+
+    void 'publisher items are rendered as json array'() {
+        when:
+            transformer.transformActionResult(webRequest, 'index', new ItemsPublisher(['one', 'two'], null))
+        then:
+            !request.asyncStarted
+            response.contentType == 'application/json;charset=UTF-8'
+            response.contentAsString == '["one","two"]'
+    }
+
+    void 'empty publisher is rendered as empty json array'() {
+        when:
+            transformer.transformActionResult(webRequest, 'index', new ItemsPublisher([], null))
+        then:
+            !request.asyncStarted
+            response.contentType == 'application/json;charset=UTF-8'
+            response.contentAsString == '[]'
+    }
+
+    void 'publisher items are requested and written one by one'() {
+        given:
+            DemandPublisher publisher = new DemandPublisher()
+        when:
+            transformer.transformActionResult(webRequest, 'index', publisher)
+        then:
+            request.asyncStarted
+            publisher.requested == 1
+        when:
+            publisher.emit([name: 'first'])
+        then:
+            publisher.requested == 2
+            response.contentAsString == '[{"name":"first"}'
+        when:
+            publisher.emit([name: 'second'])
+            publisher.complete()
+        then:
+            !request.asyncStarted
+            response.contentAsString == '[{"name":"first"},{"name":"second"}]'
+    }
+
+    void 'failed publisher is rendered as server error'() {
+        when:
+            transformer.transformActionResult(webRequest, 'index', new ItemsPublisher(['one'], new IllegalStateException('failed')))
+        then:
+            !request.asyncStarted
+            response.status == HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+    }
+
+    void 'unresolved result times out with service unavailable'() {
+        given:
+            CompletableFuture<Object> future = new CompletableFuture<>()
+        when:
+            transformer.transformActionResult(webRequest, 'index', future)
+            MockAsyncContext asyncContext = request.asyncContext as MockAsyncContext
+        then:
+            asyncContext.timeout == TIMEOUT
+        when:
+            asyncContext.listeners*.onTimeout(new AsyncEvent(asyncContext))
+        then:
+            response.status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+        when:
+            future.complete('late')
+        then:
+            response.status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+            response.contentAsString == ''
+    }
+
+    void 'transformer is created even if there are multiple object mappers'() {
+        given:
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()
+            context.registerBean('firstObjectMapper', ObjectMapper)
+            context.registerBean('secondObjectMapper', ObjectMapper)
+            context.register(ReactiveActionResultConfiguration)
+            context.environment.propertySources.addFirst(new MapPropertySource('test', [(ENABLED): 'true']))
+        when:
+            context.refresh()
+        then:
+            context.getBean(ReactiveActionResultTransformer)
+        cleanup:
+            context.close()
+    }
+
+    void 'transformer is not created unless enabled'() {
+        given:
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()
+            context.register(ReactiveActionResultConfiguration)
+        when:
+            context.refresh()
+        then:
+            context.getBeansOfType(ReactiveActionResultTransformer).isEmpty()
+        cleanup:
+            context.close()
+    }
+
+}
+
+@CompileDynamic
+class ItemsPublisher implements Publisher<Object> {
+
+    private final List<Object> items
+    private final Throwable error
+
+    ItemsPublisher(List<Object> items, Throwable error) {
+        this.items = items
+        this.error = error
+    }
+
+    @Override
+    void subscribe(Subscriber<? super Object> subscriber) {
+        subscriber.onSubscribe([request: { long n -> }, cancel: { }] as Subscription)
+        items.each { subscriber.onNext(it) }
+        if (error) {
+            subscriber.onError(error)
+        } else {
+            subscriber.onComplete()
+        }
+    }
+
+}
+
+@CompileDynamic
+class DemandPublisher implements Publisher<Object> {
+
+    long requested
+    Subscriber<? super Object> subscriber
+
+    @Override
+    void subscribe(Subscriber<? super Object> subscriber) {
+        this.subscriber = subscriber
+        subscriber.onSubscribe([request: { long n -> requested += n }, cancel: { }] as Subscription)
+    }
+
+    void emit(Object item) {
+        subscriber.onNext(item)
+    }
+
+    void complete() {
+        subscriber.onComplete()
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails.web.boot
+
+import com.agorapulse.micronaut.grails.MicronautContextHolder
+import com.agorapulse.micronaut.grails.MicronautGrailsAutoConfiguration
+import com.agorapulse.micronaut.grails.VirtualThreads
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import org.apache.catalina.connector.Connector
+import org.apache.coyote.AbstractProtocol
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory
+import org.springframework.boot.web.server.WebServerFactoryCustomizer
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+
+/**
+ * Tests for virtual threads Tomcat configuration.
+ */
+@CompileDynamic
+class VirtualThreadsTomcatConfigurationSpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext
+    @AutoCleanup AnnotationConfigApplicationContext springContext = new AnnotationConfigApplicationContext()
+
+    TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory()
+
+    void 'tomcat is not customized without micronaut context'() {
+        given:
+            springContext.register(VirtualThreadsTomcatConfiguration)
+            springContext.refresh()
+        when:
+            customizer().customize(factory)
+        then:
+            factory.tomcatConnectorCustomizers.empty
+    }
+
+    void 'tomcat is not customized unless virtual threads are enabled'() {
+        given:
+            start(new MicronautGrailsAutoConfiguration())
+        when:
+            customizer().customize(factory)
+        then:
+            factory.tomcatConnectorCustomizers.empty
+    }
+
+    @IgnoreIf({ VirtualThreads.supported })
+    void 'tomcat keeps platform threads if virtual threads are not supported'() {
+        given:
+            start(new VirtualThreadsTomcatAutoConfiguration())
+        when:
+            customizer().customize(factory)
+        then:
+            factory.tomcatConnectorCustomizers.empty
+    }
+
+    @IgnoreIf({ !VirtualThreads.supported })
+    void 'tomcat executor is shut down when the context is closed'() {
+        given:
+            start(new VirtualThreadsTomcatAutoConfiguration())
+            Connector connector = new Connector()
+        when:
+            customizer().customize(factory)
+            factory.tomcatConnectorCustomizers*.customize(connector)
+            ExecutorService executor = (connector.protocolHandler as AbstractProtocol).executor as ExecutorService
+        then:
+            executor
+            !executor.shutdown
+        when:
+            springContext.close()
+        then:
+            executor.shutdown
+    }
+
+    private void start(MicronautGrailsAutoConfiguration configuration) {
+        micronautContext = ApplicationContext.build().singletons(configuration).start()
+        springContext.beanFactory.registerSingleton('micronautContextHolder', new MicronautContextHolder(micronautContext))
+        springContext.register(VirtualThreadsTomcatConfiguration)
+        springContext.refresh()
+    }
+
+    private WebServerFactoryCustomizer<TomcatServletWebServerFactory> customizer() {
+        return springContext.getBean('virtualThreadsTomcatCustomizer', WebServerFactoryCustomizer)
+    }
+
+}
+
+@CompileDynamic
+class VirtualThreadsTomcatAutoConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    boolean isVirtualThreads() {
+        return true
+    }
+
+}
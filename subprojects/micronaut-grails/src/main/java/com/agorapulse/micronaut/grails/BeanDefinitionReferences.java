@@ -0,0 +1,98 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.DefaultBeanContext;
+import io.micronaut.inject.BeanDefinitionReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registers new bean definition references into a running context.
+ * <p>
+ * Micronaut only reads the references once when the context starts, so the new references are added to the collection
+ * held by {@link DefaultBeanContext} and the caches of the bean candidates are cleared.
+ */
+final class BeanDefinitionReferences {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BeanDefinitionReferences.class);
+    private static final String REFERENCES_FIELD = "beanDefinitionsClasses";
+    private static final String CACHE_SUFFIX = "Cache";
+
+    private BeanDefinitionReferences() { }
+
+    /**
+     * Replaces the references of the same name as the given ones, or adds them if there are none yet.
+     *
+     * @param context the context holding the references
+     * @param replacements the new references
+     * @return <code>true</code> if the references have been replaced
+     */
+    static boolean replace(BeanContext context, Collection<BeanDefinitionReference<?>> replacements) {
+        Collection<BeanDefinitionReference<?>> references = findReferences(context);
+        if (references == null) {
+            return false;
+        }
+
+        Set<String> names = new HashSet<>();
+        replacements.forEach(reference -> names.add(reference.getName()));
+
+        references.removeIf(reference -> names.contains(reference.getName()));
+        references.addAll(replacements);
+
+        clearCaches(context);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<BeanDefinitionReference<?>> findReferences(BeanContext context) {
+        if (!(context instanceof DefaultBeanContext)) {
+            return null;
+        }
+        try {
+            Field field = DefaultBeanContext.class.getDeclaredField(REFERENCES_FIELD);
+            field.setAccessible(true);
+            return (Collection<BeanDefinitionReference<?>>) field.get(context);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            LOGGER.warn("Bean definitions cannot be registered into the running context in this version of Micronaut", e);
+            return null;
+        }
+    }
+
+    private static void clearCaches(BeanContext context) {
+        for (Field field : DefaultBeanContext.class.getDeclaredFields()) {
+            if (!field.getName().endsWith(CACHE_SUFFIX) || !Map.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                ((Map<?, ?>) field.get(context)).clear();
+            } catch (IllegalAccessException | RuntimeException e) {
+                LOGGER.warn("Cannot clear " + field.getName() + " of the Micronaut context", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.inject.BeanType;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Bean exposure limits which Micronaut beans are visible to the Grails' Spring application context through
+ * the parent context.
+ * <p>
+ * The bean is exposed if it matches at least one of the includes (or there are no includes at all)
+ * and it does not match any of the excludes.
+ * <p>
+ * The hidden beans are excluded from Spring by their type, so a hidden bean stays visible if any exposed bean
+ * extends it.
+ */
+public interface BeanExposure {
+
+    interface Builder {
+        /**
+         * Includes the beans declared in given package or any of its subpackages.
+         * @param packageName the name of the package
+         * @return self
+         */
+        Builder includePackage(String packageName);
+
+        /**
+         * Excludes the beans declared in given package or any of its subpackages.
+         * @param packageName the name of the package
+         * @return self
+         */
+        Builder excludePackage(String packageName);
+
+        /**
+         * Includes the beans annotated with given stereotype.
+         * @param stereotype the name of the stereotype annotation
+         * @return self
+         */
+        Builder includeStereotype(String stereotype);
+
+        /**
+         * Excludes the beans annotated with given stereotype.
+         * @param stereotype the name of the stereotype annotation
+         * @return self
+         */
+        Builder excludeStereotype(String stereotype);
+
+        /**
+         * Includes the beans assignable to given type.
+         * <p>
+         * Unlike packages and stereotypes, matching by type loads the class of every bean.
+         * @param type the type of the beans
+         * @return self
+         */
+        Builder includeType(Class<?> type);
+
+        /**
+         * Excludes the beans assignable to given type.
+         * @param type the type of the beans
+         * @return self
+         */
+        Builder excludeType(Class<?> type);
+
+        /**
+         * Includes the beans annotated with given stereotype.
+         * @param stereotype the stereotype annotation
+         * @return self
+         */
+        default Builder includeStereotype(Class<? extends Annotation> stereotype) {
+            return includeStereotype(stereotype.getName());
+        }
+
+        /**
+         * Excludes the beans annotated with given stereotype.
+         * @param stereotype the stereotype annotation
+         * @return self
+         */
+        default Builder excludeStereotype(Class<? extends Annotation> stereotype) {
+            return excludeStereotype(stereotype.getName());
+        }
+
+        /**
+         * @return the bean exposure instance
+         */
+        BeanExposure build();
+    }
+
+    /**
+     * @return bean exposure which exposes every Micronaut bean
+     */
+    static BeanExposure all() {
+        return bean -> true;
+    }
+
+    /**
+     * Create new bean exposure builder.
+     * @return self
+     */
+    static BeanExposure.Builder builder() {
+        return DefaultBeanExposure.create();
+    }
+
+    /**
+     * @param bean the Micronaut bean definition or reference
+     * @return <code>true</code> if the bean should be visible to the Spring application context
+     */
+    boolean isExposed(BeanType<?> bean);
+
+}
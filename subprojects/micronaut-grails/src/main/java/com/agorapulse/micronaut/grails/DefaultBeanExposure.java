@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.inject.BeanDefinitionReference;
+import io.micronaut.inject.BeanType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class DefaultBeanExposure implements BeanExposure, BeanExposure.Builder {
+
+    static BeanExposure.Builder create() {
+        return new DefaultBeanExposure();
+    }
+
+    private final List<String> includedPackages = new ArrayList<>();
+    private final List<String> excludedPackages = new ArrayList<>();
+    private final List<String> includedStereotypes = new ArrayList<>();
+    private final List<String> excludedStereotypes = new ArrayList<>();
+    private final List<Class<?>> includedTypes = new ArrayList<>();
+    private final List<Class<?>> excludedTypes = new ArrayList<>();
+
+    private DefaultBeanExposure() { }
+
+    @Override
+    public BeanExposure.Builder includePackage(String packageName) {
+        includedPackages.add(packageName);
+        return this;
+    }
+
+    @Override
+    public BeanExposure.Builder excludePackage(String packageName) {
+        excludedPackages.add(packageName);
+        return this;
+    }
+
+    @Override
+    public BeanExposure.Builder includeStereotype(String stereotype) {
+        includedStereotypes.add(stereotype);
+        return this;
+    }
+
+    @Override
+    public BeanExposure.Builder excludeStereotype(String stereotype) {
+        excludedStereotypes.add(stereotype);
+        return this;
+    }
+
+    @Override
+    public BeanExposure.Builder includeType(Class<?> type) {
+        includedTypes.add(type);
+        return this;
+    }
+
+    @Override
+    public BeanExposure.Builder excludeType(Class<?> type) {
+        excludedTypes.add(type);
+        return this;
+    }
+
+    @Override
+    public BeanExposure build() {
+        return this;
+    }
+
+    @Override
+    public boolean isExposed(BeanType<?> bean) {
+        if (matches(bean, excludedPackages, excludedStereotypes, excludedTypes)) {
+            return false;
+        }
+
+        if (includedPackages.isEmpty() && includedStereotypes.isEmpty() && includedTypes.isEmpty()) {
+            return true;
+        }
+
+        return matches(bean, includedPackages, includedStereotypes, includedTypes);
+    }
+
+    private static boolean matches(BeanType<?> bean, List<String> packages, List<String> stereotypes, List<Class<?>> types) {
+        // the name and the stereotypes are read from the metadata without loading the bean class
+        String typeName = bean.getName();
+
+        for (String packageName : packages) {
+            if (typeName.startsWith(packageName + ".")) {
+                return true;
+            }
+        }
+
+        for (String stereotype : stereotypes) {
+            if (bean.hasStereotype(stereotype)) {
+                return true;
+            }
+        }
+
+        if (types.isEmpty() || bean instanceof BeanDefinitionReference && !((BeanDefinitionReference<?>) bean).isPresent()) {
+            return false;
+        }
+
+        Class<?> beanType = bean.getBeanType();
+        for (Class<?> type : types) {
+            if (type.isAssignableFrom(beanType)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
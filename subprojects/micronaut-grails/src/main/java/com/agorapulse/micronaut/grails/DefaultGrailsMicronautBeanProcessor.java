@@ -21,12 +21,17 @@ import io.micronaut.context.Qualifier;
 import io.micronaut.inject.BeanDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.scope.ScopedProxyUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
@@ -55,6 +60,9 @@ public class DefaultGrailsMicronautBeanProcessor implements BeanFactoryPostProce
     private static final String MICRONAUT_CONTEXT_PROPERTY_NAME = "micronautContext";
     private static final String MICRONAUT_QUALIFIER_PROPERTY_NAME = "micronautQualifier";
     private static final String MICRONAUT_SINGLETON_PROPERTY_NAME = "micronautSingleton";
+    private static final String MICRONAUT_BEAN_DEFINITION_PROPERTY_NAME = "micronautBeanDefinition";
+    private static final String MICRONAUT_REQUEST_SCOPE = "io.micronaut.runtime.http.scope.RequestScope";
+    private static final String SPRING_REQUEST_SCOPE = "request";
 
     private io.micronaut.context.ApplicationContext micronautContext;
     private ApplicationContext springContext;
@@ -95,6 +103,11 @@ public class DefaultGrailsMicronautBeanProcessor implements BeanFactoryPostProce
                         return new IllegalArgumentException(message);
                 });
 
+                if (definition.hasStereotype(MICRONAUT_REQUEST_SCOPE) && beanFactory.getRegisteredScope(SPRING_REQUEST_SCOPE) != null) {
+                    registerRequestScopedBean((BeanDefinitionRegistry) beanFactory, name, type == null ? definition.getBeanType() : type, micronautBeanQualifier, definition);
+                    continue;
+                }
+
                 final BeanDefinitionBuilder beanDefinitionBuilder = BeanDefinitionBuilder
                     .rootBeanDefinition(GrailsMicronautBeanFactory.class);
                 beanDefinitionBuilder.addPropertyValue(MICRONAUT_BEAN_TYPE_PROPERTY_NAME, type == null ? definition.getBeanType() : type);
@@ -125,10 +138,56 @@ public class DefaultGrailsMicronautBeanProcessor implements BeanFactoryPostProce
         throw noClassDefFoundError;
     }
 
+    private void registerRequestScopedBean(BeanDefinitionRegistry registry, String name, Class<?> type, Qualifier<?> qualifier, BeanDefinition<?> definition) {
+        BeanDefinitionBuilder beanDefinitionBuilder = BeanDefinitionBuilder
+            .rootBeanDefinition(GrailsMicronautRequestScopedBeanFactory.class)
+            .setScope(SPRING_REQUEST_SCOPE);
+        beanDefinitionBuilder.addPropertyValue(MICRONAUT_BEAN_TYPE_PROPERTY_NAME, type);
+        beanDefinitionBuilder.addPropertyValue(MICRONAUT_QUALIFIER_PROPERTY_NAME, qualifier);
+        beanDefinitionBuilder.addPropertyValue(MICRONAUT_CONTEXT_PROPERTY_NAME, micronautContext);
+        beanDefinitionBuilder.addPropertyValue(MICRONAUT_BEAN_DEFINITION_PROPERTY_NAME, definition);
+
+        // the type of the factory cannot be resolved outside of the request as the factory is not populated for the type check
+        RootBeanDefinition targetDefinition = (RootBeanDefinition) beanDefinitionBuilder.getBeanDefinition();
+        targetDefinition.setTargetType(type);
+
+        // the proxy lets singletons such as controllers and services use the instance bound to the current request
+        BeanDefinitionHolder proxy = ScopedProxyUtils.createScopedProxy(new BeanDefinitionHolder(targetDefinition, name), registry, true);
+        registry.registerBeanDefinition(proxy.getBeanName(), proxy.getBeanDefinition());
+    }
+
     protected io.micronaut.context.ApplicationContext initializeMicronautContext() {
         return springContext.getBean(MicronautContextHolder.class).getContext();
     }
 
+    /**
+     * @return the Micronaut context used to create the imported beans or <code>null</code> if not yet initialized
+     */
+    io.micronaut.context.ApplicationContext getMicronautContext() {
+        return micronautContext;
+    }
+
+    /**
+     * @return the names of the imported beans and their types and qualifiers
+     */
+    Map<String, TypeAndQualifier<?>> getMicronautBeanQualifiers() {
+        return micronautBeanQualifiers;
+    }
+
+    /**
+     * @return the parent Micronaut context created by {@link MicronautGrailsApp} if present
+     */
+    protected Optional<io.micronaut.context.ApplicationContext> findParentMicronautContext() {
+        if (springContext == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(springContext.getBean(MicronautContextHolder.class).getContext());
+        } catch (NoSuchBeanDefinitionException e) {
+            return Optional.empty();
+        }
+    }
+
     private static String printClassLoader(ClassLoader classLoader) {
         if (classLoader instanceof URLClassLoader) {
             return "URLClassLoader for URLS:" + Arrays.toString(((URLClassLoader) classLoader).getURLs());
@@ -142,7 +201,7 @@ public class DefaultGrailsMicronautBeanProcessor implements BeanFactoryPostProce
     @Override
     public void destroy() {
         if (micronautContext != null) {
-            micronautContext.close();
+            MicronautShutdownCoordinator.close(micronautContext);
         }
     }
 
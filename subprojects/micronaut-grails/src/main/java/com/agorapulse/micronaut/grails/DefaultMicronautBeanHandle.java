@@ -0,0 +1,94 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.Qualifier;
+import io.micronaut.context.annotation.Prototype;
+import io.micronaut.inject.BeanDefinition;
+
+class DefaultMicronautBeanHandle<T> implements MicronautBeanHandle<T> {
+
+    private final BeanContext context;
+    private final Class<T> type;
+    private final Qualifier<T> qualifier;
+    private final BeanDefinition<T> definition;
+    private final boolean singleton;
+    private final boolean prototype;
+
+    private volatile T instance;
+
+    DefaultMicronautBeanHandle(BeanContext context, Class<T> type, Qualifier<T> qualifier) {
+        this.context = context;
+        this.type = type;
+        this.qualifier = qualifier;
+        this.definition = context.getBeanDefinition(type, qualifier);
+        this.singleton = definition.isSingleton();
+        this.prototype = !singleton && (!definition.getScope().isPresent() || definition.hasDeclaredStereotype(Prototype.class));
+    }
+
+    @Override
+    public T get() {
+        if (prototype) {
+            return createPrototype();
+        }
+
+        if (!singleton) {
+            // the custom scopes such as request or refresh scope decide whether a new instance is required
+            return context.getBean(type, qualifier);
+        }
+
+        T current = instance;
+        if (current == null) {
+            // concurrent lookups of a singleton always return the same instance so no locking is required
+            current = context.getBean(type, qualifier);
+            instance = current;
+        }
+        return current;
+    }
+
+    @Override
+    public BeanDefinition<T> getDefinition() {
+        return definition;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return singleton;
+    }
+
+    /**
+     * Drops the cached singleton so it is looked up again on the next call of {@link #get()}.
+     */
+    void invalidate() {
+        instance = null;
+    }
+
+    @Override
+    public String toString() {
+        return "MicronautBeanHandle for " + definition;
+    }
+
+    private T createPrototype() {
+        if (context instanceof MicronautGrailsApp.MicronautGrailsAppContext) {
+            return ((MicronautGrailsApp.MicronautGrailsAppContext) context).createBean(definition, qualifier);
+        }
+        return context.createBean(type, qualifier);
+    }
+
+}
@@ -27,6 +27,8 @@ import org.springframework.core.env.Environment;
 import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.agorapulse.micronaut.grails.GrailsPropertyTranslatingCustomizer.collapse;
 import static com.agorapulse.micronaut.grails.PropertyTranslatingCustomizer.grails;
@@ -113,11 +115,37 @@ public class GrailsMicronautBeanProcessor extends DefaultGrailsMicronautBeanProc
             throw new IllegalStateException("Spring environment not set!");
         }
 
+        Optional<ApplicationContext> parentContext = findParentMicronautContext()
+            .filter(c -> c.findBean(MicronautGrailsAutoConfiguration.class).map(MicronautGrailsAutoConfiguration::isLegacySingleContext).orElse(false));
+
+        if (parentContext.isPresent()) {
+            List<PropertyTranslatingCustomizer> collapsed = collapse(customizers);
+            if (collapsed.size() == 1) {
+                return initializeSingleMicronautContext(parentContext.get(), (GrailsPropertyTranslatingCustomizer) collapsed.get(0));
+            }
+            LOGGER.warn("Cannot reuse the parent Micronaut context because there are custom property translating customizers: {}", collapsed.subList(1, collapsed.size()));
+        }
+
         DefaultApplicationContext micronautContext = new GrailsPropertyTranslatingApplicationContext(environment, of(collapse(customizers)), expectedMapProperties);
 
         return micronautContext.start();
     }
 
+    private ApplicationContext initializeSingleMicronautContext(ApplicationContext parentContext, GrailsPropertyTranslatingCustomizer customizer) {
+        io.micronaut.context.env.Environment micronautEnvironment = parentContext.getEnvironment();
+
+        if (micronautEnvironment.getPropertySources().stream().noneMatch(s -> EnvVarLikeSystemPropertiesPropertySource.NAME.equals(s.getName()))) {
+            micronautEnvironment.addPropertySource(new EnvVarLikeSystemPropertiesPropertySource());
+        }
+
+        Set<String> prefixes = GrailsPropertyTranslatingPropertySource.findPrefixes(parentContext, getMicronautBeanQualifiers().values());
+        micronautEnvironment.addPropertySource(GrailsPropertyTranslatingPropertySource.create(environment, customizer, micronautEnvironment, prefixes));
+
+        LOGGER.info("Reusing the parent Micronaut context for the beans imported by MicronautBeanImporter");
+
+        return parentContext;
+    }
+
     @Override
     public void setEnvironment(@Nonnull Environment environment) {
         this.environment = environment;
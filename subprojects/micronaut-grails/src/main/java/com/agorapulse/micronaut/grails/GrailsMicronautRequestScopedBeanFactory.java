@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.DefaultApplicationContext;
+import io.micronaut.context.Qualifier;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.DisposableBeanDefinition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * A spring FactoryBean for adding Micronaut request scoped beans to a Spring application context.
+ * <p>
+ * The factory is registered in the Spring request scope so there is a single instance of the factory for each
+ * servlet request. The Micronaut bean is created once per request and destroyed together with the factory
+ * at the end of the request.
+ *
+ * @since 3.0
+ */
+class GrailsMicronautRequestScopedBeanFactory implements FactoryBean<Object>, DisposableBean {
+
+    private Class<Object> micronautBeanType;
+    private DefaultApplicationContext micronautContext;
+    private Qualifier<Object> micronautQualifier;
+    private BeanDefinition<Object> micronautBeanDefinition;
+
+    private Object bean;
+
+    /**
+     * @param micronautBeanType The type of bean this factory will create
+     */
+    public void setMicronautBeanType(Class<Object> micronautBeanType) {
+        this.micronautBeanType = micronautBeanType;
+    }
+
+    /**
+     * @param micronautContext The Micronaut application context
+     */
+    public void setMicronautContext(DefaultApplicationContext micronautContext) {
+        this.micronautContext = micronautContext;
+    }
+
+    /**
+     * @param micronautQualifier micronaut qualifier of the bean
+     */
+    public void setMicronautQualifier(Qualifier<Object> micronautQualifier) {
+        this.micronautQualifier = micronautQualifier;
+    }
+
+    /**
+     * @param micronautBeanDefinition micronaut definition of the bean used to destroy the bean at the end of the request
+     */
+    public void setMicronautBeanDefinition(BeanDefinition<Object> micronautBeanDefinition) {
+        this.micronautBeanDefinition = micronautBeanDefinition;
+    }
+
+    @Override
+    public synchronized Object getObject() {
+        if (bean == null) {
+            bean = micronautContext.createBean(micronautBeanType, micronautQualifier);
+        }
+        return bean;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return micronautBeanType;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (bean == null) {
+            return;
+        }
+
+        if (micronautBeanDefinition instanceof DisposableBeanDefinition) {
+            ((DisposableBeanDefinition<Object>) micronautBeanDefinition).dispose(micronautContext, bean);
+        }
+
+        bean = null;
+    }
+
+}
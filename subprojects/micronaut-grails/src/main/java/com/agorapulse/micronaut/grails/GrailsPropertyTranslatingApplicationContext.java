@@ -17,6 +17,7 @@
  */
 package com.agorapulse.micronaut.grails;
 
+import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.DefaultApplicationContext;
 import io.micronaut.context.env.Environment;
 
@@ -37,4 +38,11 @@ class GrailsPropertyTranslatingApplicationContext extends DefaultApplicationCont
         return environment;
     }
 
+    @Override
+    public synchronized ApplicationContext stop() {
+        ApplicationContext result = super.stop();
+        environment.stop();
+        return result;
+    }
+
 }
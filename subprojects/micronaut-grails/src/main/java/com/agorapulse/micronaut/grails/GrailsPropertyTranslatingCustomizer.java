@@ -166,6 +166,30 @@ class GrailsPropertyTranslatingCustomizer implements PropertyTranslatingCustomiz
         return keys;
     }
 
+    /**
+     * Reverts the prefix replacements.
+     *
+     * @param alternativeName the name of the property as defined in the Spring environment
+     * @return set of the original names which would be translated to the given alternative name
+     */
+    Set<String> getOriginalNames(String alternativeName) {
+        if (alternativeName == null || alternativeName.length() == 0) {
+            return Collections.emptySet();
+        }
+
+        Set<String> keys = new LinkedHashSet<>(prefixPrefixReplacements.size());
+        prefixPrefixReplacements.forEach(replacement -> {
+            if (replacement.replacement.isEmpty() || alternativeName.startsWith(replacement.replacement)) {
+                String originalKey = replacement.original + alternativeName.substring(replacement.replacement.length());
+                if (!originalKey.equals(alternativeName) && getAlternativeNames(originalKey).contains(alternativeName)) {
+                    keys.add(originalKey);
+                }
+            }
+        });
+
+        return keys;
+    }
+
     private static String dehyphenate(String key) {
         return Arrays.stream(key.split("\\."))
             .map(NameUtils::dehyphenate)
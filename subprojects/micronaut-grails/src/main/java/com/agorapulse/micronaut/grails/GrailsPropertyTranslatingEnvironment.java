@@ -20,7 +20,9 @@ package com.agorapulse.micronaut.grails;
 import io.micronaut.context.ApplicationContextConfiguration;
 import io.micronaut.context.env.DefaultEnvironment;
 import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.convert.ConversionContext;
 import io.micronaut.core.convert.ConversionService;
+import io.micronaut.core.type.Argument;
 import io.micronaut.core.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +33,7 @@ import org.springframework.core.env.PropertySource;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,6 +51,8 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
     private final Environment environment;
     private final PropertyTranslatingCustomizer customizer;
     private final Map<String, Object> multilayer = new LinkedHashMap<>();
+    private final PropertyAccessAudit audit;
+    private final Map<String, String> translations;
 
     GrailsPropertyTranslatingEnvironment(Environment environment, PropertyTranslatingCustomizer customizer, List<String> expectedMapProperties) {
         super(new ApplicationContextConfiguration() {
@@ -60,6 +65,19 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
         this.environment = environment;
         this.customizer = customizer;
 
+        String auditFile = environment.getProperty(PropertyAccessAudit.FILE_PROPERTY);
+        if (!StringUtils.isEmpty(auditFile)) {
+            this.audit = new PropertyAccessAudit(new File(auditFile));
+        } else if (!StringUtils.isEmpty(environment.getProperty(LegacyMigrationAnalyzer.REPORT_FILE_PROPERTY))) {
+            // the migration analyzer only needs the records in memory
+            this.audit = new PropertyAccessAudit(null);
+        } else {
+            this.audit = null;
+        }
+        this.translations = !StringUtils.isEmpty(auditFile) && environment.getProperty(PropertyAccessAudit.REPLAY_PROPERTY, Boolean.class, false)
+            ? PropertyAccessAudit.readTranslations(new File(auditFile))
+            : Collections.emptyMap();
+
         if (environment instanceof AbstractEnvironment) {
             AbstractEnvironment abEnv = (AbstractEnvironment) environment;
             for (PropertySource<?> source : abEnv.getPropertySources()) {
@@ -108,6 +126,20 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
         }
     }
 
+    /**
+     * @return the audit of the property lookups or <code>null</code> if the lookups are not being recorded
+     */
+    PropertyAccessAudit getAudit() {
+        return audit;
+    }
+
+    /**
+     * @return the Spring environment being translated
+     */
+    Environment getSpringEnvironment() {
+        return environment;
+    }
+
     @Override
     public io.micronaut.context.env.Environment start() {
         return this;
@@ -115,6 +147,9 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
 
     @Override
     public io.micronaut.context.env.Environment stop() {
+        if (audit != null) {
+            audit.write();
+        }
         return this;
     }
 
@@ -124,6 +159,11 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
             return true;
         }
 
+        String translation = name == null ? null : translations.get(name);
+        if (translation != null && environment.containsProperty(translation)) {
+            return true;
+        }
+
         Set<String> alternativeNames = customizer.getAlternativeNames(name);
         if (alternativeNames.isEmpty()) {
             return false;
@@ -176,15 +216,43 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
 
     @Override
     public <T> Optional<T> getProperty(@Nullable String name, ArgumentConversionContext<T> conversionContext) {
+        return resolveProperty(name, conversionContext, true);
+    }
+
+    /**
+     * Resolves the property the same way as {@link #getProperty(String, ArgumentConversionContext)} but without
+     * recording the lookup into the audit and without logging the use of the alternative names.
+     *
+     * @param name the name of the property
+     * @return the value of the property if present
+     */
+    Optional<Object> getPropertyWithoutAudit(@Nullable String name) {
+        return resolveProperty(name, ConversionContext.of(Argument.of(Object.class)), false);
+    }
+
+    private <T> Optional<T> resolveProperty(@Nullable String name, ArgumentConversionContext<T> conversionContext, boolean audited) {
         Class<T> type = conversionContext.getArgument().getType();
+
         Object property = environment.getProperty(name, Object.class);
         Optional<T> value = ConversionService.SHARED.convert(property, type, conversionContext);
         if (value.isPresent()) {
+            record(audited, name, name);
             return value;
         }
 
+        // the replayed translation only saves trying all the alternative names, the direct name always wins
+        String translation = name == null ? null : translations.get(name);
+        if (translation != null) {
+            Optional<T> translatedValue = ConversionService.SHARED.convert(environment.getProperty(translation, Object.class), type, conversionContext);
+            if (translatedValue.isPresent()) {
+                record(audited, name, translation);
+                return translatedValue;
+            }
+        }
+
         Set<String> alternativeNames = customizer.getAlternativeNames(name);
         if (alternativeNames.isEmpty()) {
+            record(audited, name, null);
             return Optional.empty();
         }
 
@@ -192,15 +260,23 @@ class GrailsPropertyTranslatingEnvironment extends DefaultEnvironment {
             Object altProperty = environment.getProperty(alternativeName, Object.class);
             Optional<T> alternativeValue = ConversionService.SHARED.convert(altProperty, type, conversionContext);
             if (alternativeValue.isPresent()) {
-                if (LOGGER.isWarnEnabled()) {
+                if (audited && LOGGER.isWarnEnabled()) {
                     LOGGER.warn("Property '" + name + "' has been loaded using the value of '" + alternativeName + "' property!"
                         + " This is only supported in LEGACY mode. Please declare the property directly as '" + name + "'.");
                 }
+                record(audited, name, alternativeName);
                 return alternativeValue;
             }
         }
 
+        record(audited, name, null);
         return Optional.empty();
     }
 
+    private void record(boolean audited, String name, String resolvedName) {
+        if (audited && audit != null) {
+            audit.record(name, resolvedName);
+        }
+    }
+
 }
@@ -0,0 +1,254 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.BeanDefinitionRegistry;
+import io.micronaut.context.Qualifier;
+import io.micronaut.context.annotation.ConfigurationReader;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.env.MapPropertySource;
+import io.micronaut.core.annotation.AnnotationMetadata;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.FieldInjectionPoint;
+import io.micronaut.inject.MethodInjectionPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Property source which exposes the properties of the Spring environment translated by
+ * {@link GrailsPropertyTranslatingCustomizer} to an existing Micronaut environment.
+ * <p>
+ * This is the single context alternative to {@link GrailsPropertyTranslatingEnvironment}. The translations are
+ * computed once when the property source is created and the properties already present in the Micronaut environment
+ * always take precedence. As the parent Micronaut context is shared by the whole application, only the properties
+ * read by the imported beans and the beans they depend on are exposed, see {@link #findPrefixes(BeanDefinitionRegistry, Collection)}.
+ */
+class GrailsPropertyTranslatingPropertySource extends MapPropertySource {
+
+    /**
+     * Constant for the translated property source.
+     */
+    public static final String NAME = "grails-translated";
+
+    /**
+     * The lowest precedence so any property defined directly in the Micronaut environment wins.
+     */
+    public static final int POSITION = Integer.MIN_VALUE + 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GrailsPropertyTranslatingPropertySource.class);
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^:}]+)");
+    private static final String PREFIX_MEMBER = "prefix";
+    private static final String NAME_MEMBER = "name";
+
+    /**
+     * Collects the prefixes of the configuration properties and the names of the properties injected into the given
+     * beans and into all the beans they depend on.
+     *
+     * @param registry the registry of the bean definitions
+     * @param beans the types and qualifiers of the beans
+     * @return the prefixes and the names of the properties read by the beans
+     */
+    @SuppressWarnings("unchecked")
+    static Set<String> findPrefixes(BeanDefinitionRegistry registry, Collection<TypeAndQualifier<?>> beans) {
+        Deque<BeanDefinition<?>> queue = new ArrayDeque<>();
+        for (TypeAndQualifier<?> bean : beans) {
+            Class<Object> type = bean.getType() == null ? Object.class : (Class<Object>) bean.getType();
+            Qualifier<Object> qualifier = (Qualifier<Object>) bean.getQualifier();
+            Collection<BeanDefinition<Object>> definitions = registry.getBeanDefinitions(type);
+            queue.addAll(qualifier == null ? definitions : qualifier.reduce(type, definitions.stream()).collect(Collectors.toList()));
+        }
+
+        Set<String> prefixes = new LinkedHashSet<>();
+        Set<BeanDefinition<?>> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            BeanDefinition<?> definition = queue.poll();
+            if (!visited.add(definition)) {
+                continue;
+            }
+
+            definition.getAnnotationMetadata().getValue(ConfigurationReader.class, PREFIX_MEMBER, String.class)
+                .ifPresent(prefix -> addPrefix(prefixes, prefix));
+
+            for (Argument<?> argument : definition.getConstructor().getArguments()) {
+                addPropertyNames(prefixes, argument.getAnnotationMetadata());
+            }
+            for (FieldInjectionPoint<?> field : definition.getInjectedFields()) {
+                addPropertyNames(prefixes, field.getAnnotationMetadata());
+            }
+            for (MethodInjectionPoint method : definition.getInjectedMethods()) {
+                for (Argument<?> argument : method.getArguments()) {
+                    addPropertyNames(prefixes, argument.getAnnotationMetadata());
+                }
+            }
+
+            for (Class<?> component : definition.getRequiredComponents()) {
+                queue.addAll(registry.getBeanDefinitions(component));
+            }
+        }
+        return prefixes;
+    }
+
+    static GrailsPropertyTranslatingPropertySource create(
+        Environment environment,
+        GrailsPropertyTranslatingCustomizer customizer,
+        PropertyResolver target,
+        Set<String> prefixes
+    ) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        Map<String, String> translations = new LinkedHashMap<>();
+
+        if (environment instanceof ConfigurableEnvironment) {
+            for (PropertySource<?> source : ((ConfigurableEnvironment) environment).getPropertySources()) {
+                if (!(source instanceof EnumerablePropertySource)) {
+                    continue;
+                }
+
+                boolean system = isSystemPropertySource(source);
+
+                for (String name : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                    String key = StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME.equals(source.getName())
+                        ? name.toLowerCase(Locale.ROOT).replace('_', '.')
+                        : name;
+
+                    if (!system && isIncluded(prefixes, name)) {
+                        translate(environment, target, properties, translations, name, name);
+                    }
+
+                    for (String original : customizer.getOriginalNames(key)) {
+                        if (isIncluded(prefixes, original)) {
+                            translate(environment, target, properties, translations, original, name);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Translated " + properties.size() + " properties with prefixes " + prefixes + " from the Spring environment into the Micronaut environment."
+                + " Please declare the properties directly to be able to switch to BRIDGE or STRICT compatibility mode.");
+        }
+
+        return new GrailsPropertyTranslatingPropertySource(properties, translations);
+    }
+
+    private static void addPropertyNames(Set<String> prefixes, AnnotationMetadata metadata) {
+        metadata.getValue(Value.class, String.class).ifPresent(value -> {
+            Matcher matcher = PLACEHOLDER.matcher(value);
+            while (matcher.find()) {
+                addPrefix(prefixes, matcher.group(1).trim());
+            }
+        });
+        metadata.getValue(Property.class, NAME_MEMBER, String.class).ifPresent(name -> addPrefix(prefixes, name));
+    }
+
+    private static void addPrefix(Set<String> prefixes, String prefix) {
+        // the prefixes of the each properties end with the wildcard, e.g. aws.sns.topics.*
+        int wildcard = prefix.indexOf('*');
+        String fixed = wildcard < 0 ? prefix : prefix.substring(0, wildcard);
+        while (fixed.endsWith(".")) {
+            fixed = fixed.substring(0, fixed.length() - 1);
+        }
+        if (!fixed.isEmpty()) {
+            prefixes.add(fixed);
+        }
+    }
+
+    private static boolean isIncluded(Set<String> prefixes, String name) {
+        for (String prefix : prefixes) {
+            if (name.equals(prefix) || name.startsWith(prefix) && (name.charAt(prefix.length()) == '.' || name.charAt(prefix.length()) == '[')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSystemPropertySource(PropertySource<?> source) {
+        return StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME.equals(source.getName())
+            || StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME.equals(source.getName());
+    }
+
+    private static void translate(
+        Environment environment,
+        PropertyResolver target,
+        Map<String, Object> properties,
+        Map<String, String> translations,
+        String name,
+        String springName
+    ) {
+        if (properties.containsKey(name) || target.containsProperty(name)) {
+            return;
+        }
+
+        try {
+            Object value = environment.getProperty(springName, Object.class);
+            if (value != null) {
+                if (!name.equals(springName)) {
+                    translations.put(name, springName);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Property '" + name + "' is translated from '" + springName + "' property!");
+                    }
+                }
+                properties.put(name, value);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Property '" + springName + "' cannot be resolved", e);
+        }
+    }
+
+    private final Map<String, String> translations;
+
+    private GrailsPropertyTranslatingPropertySource(Map<String, Object> properties, Map<String, String> translations) {
+        super(NAME, properties);
+        this.translations = Collections.unmodifiableMap(translations);
+    }
+
+    /**
+     * @return the properties which have been translated from the alternative names mapped to the alternative names
+     */
+    Map<String, String> getTranslations() {
+        return translations;
+    }
+
+    @Override
+    public int getOrder() {
+        return POSITION;
+    }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.context.Qualifier;
+import io.micronaut.context.exceptions.NoSuchBeanException;
+import io.micronaut.context.exceptions.NonUniqueBeanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Analyzes the application running in the legacy compatibility mode and writes the report of what prevents it
+ * from switching to the bridge or the strict mode.
+ * <p>
+ * For every bean imported by {@link MicronautBeanImporter} the report lists the Spring beans which depend on it
+ * and whether they are injected by name without any annotation which only works in the legacy or the bridge mode.
+ * For every property which has only been resolved using one of the alternative names provided by
+ * {@link PropertyTranslatingCustomizer} the report lists the name which satisfied the lookup.
+ * Both come with the measured average time of a single lookup using the legacy mechanism and the direct lookup,
+ * which is the lookup of the bean in the parent Micronaut context or the lookup of the alternative name of the property
+ * in the Spring environment.
+ * <p>
+ * The analyzer is enabled by setting <code>micronaut.grails.migration-report.file</code> property.
+ */
+class LegacyMigrationAnalyzer implements ApplicationListener<ContextRefreshedEvent>, ApplicationContextAware {
+
+    /**
+     * The file to write the migration report into.
+     */
+    static final String REPORT_FILE_PROPERTY = "micronaut.grails.migration-report.file";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LegacyMigrationAnalyzer.class);
+
+    private static final int WARM_UP_LOOKUPS = 100;
+    private static final int MEASURED_LOOKUPS = 1000;
+
+    private static final String BY_NAME = "by-name";
+    private static final String ANNOTATED = "annotated";
+    private static final String BY_TYPE = "by-type";
+
+    private ApplicationContext springContext;
+
+    @Override
+    public void setApplicationContext(@Nonnull ApplicationContext applicationContext) throws BeansException {
+        this.springContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(@Nonnull ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != springContext) {
+            return;
+        }
+
+        String reportFile = springContext.getEnvironment().getProperty(REPORT_FILE_PROPERTY);
+        if (StringUtils.isEmpty(reportFile)) {
+            return;
+        }
+
+        write(new File(reportFile), analyze());
+    }
+
+    /**
+     * @return the migration report
+     */
+    Map<String, Object> analyze() {
+        List<Map<String, Object>> imports = new ArrayList<>();
+        List<Map<String, Object>> properties = new ArrayList<>();
+
+        io.micronaut.context.ApplicationContext parentContext = findParentMicronautContext().orElse(null);
+        Set<io.micronaut.context.env.Environment> analyzedEnvironments = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (GrailsMicronautBeanProcessor processor : springContext.getBeansOfType(GrailsMicronautBeanProcessor.class, false, false).values()) {
+            io.micronaut.context.ApplicationContext legacyContext = processor.getMicronautContext();
+            if (legacyContext == null) {
+                continue;
+            }
+
+            processor.getMicronautBeanQualifiers().forEach((name, typeAndQualifier) ->
+                imports.add(analyzeImport(name, typeAndQualifier, legacyContext, parentContext))
+            );
+
+            io.micronaut.context.env.Environment legacyEnvironment = legacyContext.getEnvironment();
+            if (legacyEnvironment instanceof GrailsPropertyTranslatingEnvironment) {
+                properties.addAll(analyzeProperties((GrailsPropertyTranslatingEnvironment) legacyEnvironment));
+            } else if (analyzedEnvironments.add(legacyEnvironment)) {
+                // the parent context is reused in the single context mode
+                legacyEnvironment.getPropertySources().stream()
+                    .filter(GrailsPropertyTranslatingPropertySource.class::isInstance)
+                    .findFirst()
+                    .ifPresent(source -> properties.addAll(analyzeProperties(legacyEnvironment, (GrailsPropertyTranslatingPropertySource) source)));
+            }
+        }
+
+        boolean byName = imports.stream().anyMatch(i -> CompatibilityMode.BRIDGE.name().equals(i.get("requiredMode")));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("recommendedMode", properties.isEmpty() ? (byName ? CompatibilityMode.BRIDGE.name() : CompatibilityMode.STRICT.name()) : CompatibilityMode.LEGACY.name());
+        report.put("imports", imports);
+        report.put("properties", properties);
+        return report;
+    }
+
+    private Map<String, Object> analyzeImport(
+        String name,
+        TypeAndQualifier<?> typeAndQualifier,
+        io.micronaut.context.ApplicationContext legacyContext,
+        io.micronaut.context.ApplicationContext parentContext
+    ) {
+        ConfigurableListableBeanFactory beanFactory = ((ConfigurableApplicationContext) springContext).getBeanFactory();
+
+        List<Map<String, Object>> dependents = new ArrayList<>();
+        boolean byName = false;
+
+        for (String dependent : beanFactory.getDependentBeans(name)) {
+            String injection = classifyInjection(beanFactory, dependent, name);
+            byName |= BY_NAME.equals(injection);
+
+            Map<String, Object> dependentReport = new LinkedHashMap<>();
+            dependentReport.put("bean", dependent);
+            dependentReport.put("injection", injection);
+            dependents.add(dependentReport);
+        }
+
+        Map<String, Object> importReport = new LinkedHashMap<>();
+        importReport.put("name", name);
+        importReport.put("type", typeAndQualifier.getType() == null ? null : typeAndQualifier.getType().getName());
+        importReport.put("qualifier", typeAndQualifier.getQualifier() == null ? null : typeAndQualifier.getQualifier().toString());
+        importReport.put("requiredMode", byName ? CompatibilityMode.BRIDGE.name() : CompatibilityMode.STRICT.name());
+        importReport.put("dependents", dependents);
+
+        Optional<Object> legacyBean = lookup(legacyContext, typeAndQualifier);
+        if (legacyBean.isPresent() && isSingleton(beanFactory, name)) {
+            importReport.put("legacyLookupNanos", measure(() -> lookup(legacyContext, typeAndQualifier)));
+            if (parentContext != null && parentContext != legacyContext && lookup(parentContext, typeAndQualifier).isPresent()) {
+                importReport.put("parentLookupNanos", measure(() -> lookup(parentContext, typeAndQualifier)));
+            }
+        }
+
+        return importReport;
+    }
+
+    private List<Map<String, Object>> analyzeProperties(GrailsPropertyTranslatingEnvironment environment) {
+        PropertyAccessAudit audit = environment.getAudit();
+        if (audit == null) {
+            return new ArrayList<>();
+        }
+
+        Environment springEnvironment = environment.getSpringEnvironment();
+        List<Map<String, Object>> properties = new ArrayList<>();
+
+        // snapshot the recorded counts first, the measured lookups bypass the audit anyway
+        audit.getTranslations().forEach((name, resolvedName) -> {
+            Map<String, Object> property = new LinkedHashMap<>();
+            property.put("name", name);
+            property.put("resolvedName", resolvedName);
+            property.put("count", audit.getCount(name));
+            properties.add(property);
+        });
+
+        for (Map<String, Object> property : properties) {
+            String name = (String) property.get("name");
+            String resolvedName = (String) property.get("resolvedName");
+            property.put("translatedLookupNanos", measure(() -> environment.getPropertyWithoutAudit(name)));
+            property.put("springLookupNanos", measure(() -> springEnvironment.getProperty(resolvedName)));
+        }
+
+        return properties;
+    }
+
+    private List<Map<String, Object>> analyzeProperties(io.micronaut.context.env.Environment environment, GrailsPropertyTranslatingPropertySource source) {
+        Environment springEnvironment = springContext.getEnvironment();
+        List<Map<String, Object>> properties = new ArrayList<>();
+
+        // the lookups are not recorded in the single context mode, the translations are computed on startup
+        source.getTranslations().forEach((name, resolvedName) -> {
+            Map<String, Object> property = new LinkedHashMap<>();
+            property.put("name", name);
+            property.put("resolvedName", resolvedName);
+            property.put("translatedLookupNanos", measure(() -> environment.getProperty(name, Object.class)));
+            property.put("springLookupNanos", measure(() -> springEnvironment.getProperty(resolvedName)));
+            properties.add(property);
+        });
+
+        return properties;
+    }
+
+    private static String classifyInjection(ConfigurableListableBeanFactory beanFactory, String dependent, String name) {
+        try {
+            BeanDefinition definition = beanFactory.getMergedBeanDefinition(dependent);
+            Class<?> type = beanFactory.getType(dependent);
+            if (type == null) {
+                return BY_TYPE;
+            }
+
+            Field field = ReflectionUtils.findField(type, name);
+            Method setter = ReflectionUtils.findMethod(type, "set" + StringUtils.capitalize(name), (Class<?>[]) null);
+
+            if (isAnnotated(field) || isAnnotated(setter)) {
+                return ANNOTATED;
+            }
+
+            boolean autowiredByName = definition instanceof AbstractBeanDefinition
+                && ((AbstractBeanDefinition) definition).getAutowireMode() == AutowireCapableBeanFactory.AUTOWIRE_BY_NAME;
+
+            return autowiredByName || definition.getPropertyValues().contains(name) ? BY_NAME : BY_TYPE;
+        } catch (NoSuchBeanDefinitionException e) {
+            return BY_TYPE;
+        }
+    }
+
+    private static boolean isAnnotated(AnnotatedElement element) {
+        if (element == null) {
+            return false;
+        }
+        for (Class<? extends Annotation> annotation : Arrays.asList(Inject.class, Autowired.class, Resource.class)) {
+            if (element.isAnnotationPresent(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSingleton(ConfigurableListableBeanFactory beanFactory, String name) {
+        try {
+            return beanFactory.isSingleton(name);
+        } catch (NoSuchBeanDefinitionException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Object> lookup(io.micronaut.context.ApplicationContext context, TypeAndQualifier<?> typeAndQualifier) {
+        Class<Object> type = typeAndQualifier.getType() == null ? Object.class : (Class<Object>) typeAndQualifier.getType();
+        Qualifier<Object> qualifier = (Qualifier<Object>) typeAndQualifier.getQualifier();
+        try {
+            return context.findBean(type, qualifier);
+        } catch (NoSuchBeanException | NonUniqueBeanException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static long measure(Supplier<?> lookup) {
+        for (int i = 0; i < WARM_UP_LOOKUPS; i++) {
+            lookup.get();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            lookup.get();
+        }
+        return (System.nanoTime() - started) / MEASURED_LOOKUPS;
+    }
+
+    private Optional<io.micronaut.context.ApplicationContext> findParentMicronautContext() {
+        try {
+            return Optional.of(springContext.getBean(MicronautContextHolder.class).getContext());
+        } catch (NoSuchBeanDefinitionException e) {
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(File file, Map<String, Object> report) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+            LOGGER.info("Migration report with " + ((List<Object>) report.get("imports")).size() + " imported beans and "
+                + ((List<Object>) report.get("properties")).size() + " translated properties written to " + file.getAbsolutePath()
+                + ", recommended compatibility mode is " + report.get("recommendedMode"));
+        } catch (IOException e) {
+            LOGGER.error("Failed to write migration report to " + file.getAbsolutePath(), e);
+        }
+    }
+
+}
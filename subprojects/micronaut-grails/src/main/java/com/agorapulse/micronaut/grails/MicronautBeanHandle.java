@@ -0,0 +1,47 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.inject.BeanDefinition;
+
+import javax.inject.Provider;
+
+/**
+ * Pre-resolved handle to a Micronaut bean for the code on the hot path.
+ * <p>
+ * The bean definition is resolved only once when the handle is created. Singletons are cached in the handle after
+ * the first lookup until they are reloaded or refreshed. Prototypes are created directly from the resolved definition
+ * on every call of {@link #get()} and the beans of other scopes are obtained from their scope.
+ * Handles are thread-safe and they are meant to be obtained once and stored in a field.
+ *
+ * @param <T> the type of the bean
+ * @see MicronautContextHolder#handle(Class, io.micronaut.context.Qualifier)
+ */
+public interface MicronautBeanHandle<T> extends Provider<T> {
+
+    /**
+     * @return the resolved bean definition
+     */
+    BeanDefinition<T> getDefinition();
+
+    /**
+     * @return <code>true</code> if the same instance is returned from every call of {@link #get()}
+     */
+    boolean isSingleton();
+
+}
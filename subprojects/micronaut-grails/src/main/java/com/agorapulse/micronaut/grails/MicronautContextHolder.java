@@ -18,14 +18,22 @@
 package com.agorapulse.micronaut.grails;
 
 import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.Qualifier;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 @Singleton
 public class MicronautContextHolder {
 
     private final ApplicationContext context;
+    private final Set<DefaultMicronautBeanHandle<?>> singletonHandles = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
 
     public MicronautContextHolder(ApplicationContext context) {
         this.context = context;
@@ -36,4 +44,46 @@ public class MicronautContextHolder {
         return context;
     }
 
+    /**
+     * Resolves the bean definition once and returns a handle which can be used to obtain the bean repeatedly
+     * without resolving the bean from the context again.
+     *
+     * @param type the type of the bean
+     * @param qualifier the qualifier of the bean or <code>null</code>
+     * @param <T> the type of the bean
+     * @return the handle for the bean
+     * @throws io.micronaut.context.exceptions.NoSuchBeanException if the bean does not exist
+     */
+    @Nonnull
+    public <T> MicronautBeanHandle<T> handle(@Nonnull Class<T> type, @Nullable Qualifier<T> qualifier) {
+        DefaultMicronautBeanHandle<T> handle = new DefaultMicronautBeanHandle<>(context, type, qualifier);
+        if (handle.isSingleton()) {
+            singletonHandles.add(handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Resolves the bean definition once and returns a handle which can be used to obtain the bean repeatedly
+     * without resolving the bean from the context again.
+     *
+     * @param type the type of the bean
+     * @param <T> the type of the bean
+     * @return the handle for the bean
+     * @throws io.micronaut.context.exceptions.NoSuchBeanException if the bean does not exist
+     */
+    @Nonnull
+    public <T> MicronautBeanHandle<T> handle(@Nonnull Class<T> type) {
+        return handle(type, null);
+    }
+
+    /**
+     * Drops the singletons cached in the handles after the beans have been destroyed or refreshed.
+     */
+    void invalidateHandles() {
+        // copying the synchronized set is atomic
+        List<DefaultMicronautBeanHandle<?>> handles = new ArrayList<>(singletonHandles);
+        handles.forEach(DefaultMicronautBeanHandle::invalidate);
+    }
+
 }
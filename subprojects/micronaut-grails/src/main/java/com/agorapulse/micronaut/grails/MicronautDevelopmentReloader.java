@@ -0,0 +1,314 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.BeanRegistration;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.BeanDefinitionReference;
+import org.grails.io.watch.DirectoryWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Refreshes the Micronaut beans whose classes were recompiled in the development mode.
+ * <p>
+ * The class directories of the application are watched for changed class files. When a bean class or its generated
+ * bean definition changes, the class and its definitions are loaded again by a new class loader and the new definitions
+ * replace the previous ones in the Micronaut context. New bean definitions are registered the same way. Every
+ * instantiated singleton of the changed bean and of every bean which depends on it is destroyed, including
+ * the qualified ones, so they are created again from the new definitions. The Spring beans bridging them and the Spring
+ * beans depending on the bridges are destroyed and created again so they hold the new instances. The cached singletons
+ * of the bean handles are dropped as well. The rest of both contexts keeps running.
+ * <p>
+ * The reloaded class is a different class than the original one so the other beans should only depend on it
+ * through an interface or a superclass which is not reloaded.
+ *
+ * @see MicronautGrailsAutoConfiguration#isDevelopmentReload()
+ */
+class MicronautDevelopmentReloader implements DirectoryWatcher.FileChangeListener, ApplicationListener<ContextClosedEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicronautDevelopmentReloader.class);
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String DEFINITION_SUFFIX = "Definition";
+    private static final String DEFINITION_CLASS_SUFFIX = "DefinitionClass";
+    private static final String REFERENCE_FILE_SUFFIX = DEFINITION_CLASS_SUFFIX + CLASS_EXTENSION;
+    private static final long SLEEP_TIME = 500;
+
+    private final ApplicationContext micronautContext;
+    private final ConfigurableApplicationContext springContext;
+    private final File classesDirectory;
+    private final ClassLoader applicationClassLoader;
+    private final DirectoryWatcher watcher = new DirectoryWatcher();
+
+    MicronautDevelopmentReloader(
+        ApplicationContext micronautContext,
+        ConfigurableApplicationContext springContext,
+        File classesDirectory,
+        ClassLoader applicationClassLoader
+    ) {
+        this.micronautContext = micronautContext;
+        this.springContext = springContext;
+        this.classesDirectory = classesDirectory;
+        this.applicationClassLoader = applicationClassLoader;
+    }
+
+    void start() {
+        watcher.addWatchDirectory(classesDirectory, Collections.singletonList("class"));
+        watcher.addListener(this);
+        watcher.setSleepTime(SLEEP_TIME);
+        watcher.setDaemon(true);
+        watcher.start();
+        LOGGER.info("Watching " + classesDirectory + " for changes of Micronaut beans");
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        if (event.getApplicationContext() == springContext) {
+            watcher.setActive(false);
+        }
+    }
+
+    @Override
+    public void onChange(File file) {
+        String className = toBeanClassName(file);
+        if (className != null) {
+            reload(className);
+        }
+    }
+
+    @Override
+    public void onNew(File file) {
+        onChange(file);
+    }
+
+    /**
+     * Registers the bean definitions of the given class loaded again from the classes directory and destroys
+     * the singletons of the given class and of all the beans depending on them.
+     *
+     * @param className the name of the changed class
+     * @return the number of destroyed Micronaut beans
+     */
+    synchronized int reload(String className) {
+        long now = System.currentTimeMillis();
+
+        List<BeanDefinitionReference<?>> references = loadReferences(className);
+
+        Set<Class<?>> affectedTypes = new LinkedHashSet<>();
+        List<BeanRegistration<?>> affected = new ArrayList<>();
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (BeanRegistration<Object> registration : micronautContext.getActiveBeanRegistrations(Object.class)) {
+                BeanDefinition<Object> definition = registration.getBeanDefinition();
+                Class<?> beanType = definition.getBeanType();
+                if (!affected.contains(registration) && (className.equals(beanType.getName()) || dependsOn(definition, affectedTypes))) {
+                    affected.add(registration);
+                    affectedTypes.add(beanType);
+                    found = true;
+                }
+            }
+        }
+
+        if (affected.isEmpty() && references.isEmpty()) {
+            return 0;
+        }
+
+        for (BeanRegistration<?> registration : affected) {
+            if (!SingletonRegistrations.destroy(micronautContext, registration)) {
+                micronautContext.destroyBean(registration.getBeanDefinition().getBeanType());
+            }
+        }
+
+        if (!references.isEmpty() && !BeanDefinitionReferences.replace(micronautContext, references)) {
+            LOGGER.warn("The new bean definitions of " + className + " cannot be registered, restart the application to use the changed code");
+        }
+
+        micronautContext.getActiveBeanRegistrations(MicronautContextHolder.class)
+            .forEach(registration -> registration.getBean().invalidateHandles());
+
+        int springBeans = recreateSpringBeans(affectedTypes);
+
+        LOGGER.info("Reloaded " + references.size() + " bean definitions, " + affected.size() + " Micronaut beans and " + springBeans + " Spring beans after " + className + " changed in " + (System.currentTimeMillis() - now) + " ms");
+
+        return affected.size();
+    }
+
+    private List<BeanDefinitionReference<?>> loadReferences(String className) {
+        int lastDot = className.lastIndexOf('.');
+        String packageName = className.substring(0, lastDot + 1);
+        File packageDirectory = new File(classesDirectory, packageName.replace('.', File.separatorChar));
+        String prefix = "$" + className.substring(lastDot + 1);
+
+        File[] files = packageDirectory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(REFERENCE_FILE_SUFFIX) && isGeneratedFor(prefix, name));
+        if (files == null || files.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<BeanDefinitionReference<?>> references = new ArrayList<>();
+        try {
+            ClassLoader classLoader = new ReloadingClassLoader(classesDirectory, applicationClassLoader, className);
+            for (File file : files) {
+                String name = file.getName();
+                Class<?> referenceClass = classLoader.loadClass(packageName + name.substring(0, name.length() - CLASS_EXTENSION.length()));
+                references.add((BeanDefinitionReference<?>) referenceClass.getDeclaredConstructor().newInstance());
+            }
+        } catch (ReflectiveOperationException | MalformedURLException | LinkageError | ClassCastException e) {
+            LOGGER.warn("Cannot load the bean definitions of " + className + ", restart the application to use the changed code", e);
+            return Collections.emptyList();
+        }
+        return references;
+    }
+
+    private int recreateSpringBeans(Set<Class<?>> types) {
+        ConfigurableListableBeanFactory beanFactory = springContext.getBeanFactory();
+        if (!(beanFactory instanceof DefaultListableBeanFactory)) {
+            return 0;
+        }
+
+        Set<String> destroyed = new LinkedHashSet<>();
+        for (Class<?> type : types) {
+            for (String name : beanFactory.getBeanNamesForType(type, true, false)) {
+                if (beanFactory.containsSingleton(name) && beanFactory.getBeanDefinition(name).isSingleton()) {
+                    collectDependentBeans(beanFactory, name, destroyed);
+                    ((DefaultListableBeanFactory) beanFactory).destroySingleton(name);
+                }
+            }
+        }
+
+        for (String name : destroyed) {
+            if (beanFactory.containsBeanDefinition(name) && !beanFactory.getBeanDefinition(name).isLazyInit()) {
+                beanFactory.getBean(name);
+            }
+        }
+
+        return destroyed.size();
+    }
+
+    private static void collectDependentBeans(ConfigurableListableBeanFactory beanFactory, String name, Set<String> collected) {
+        // destroying a singleton destroys the singletons depending on it as well
+        if (!collected.add(name)) {
+            return;
+        }
+        for (String dependent : beanFactory.getDependentBeans(name)) {
+            if (beanFactory.containsSingleton(dependent)) {
+                collectDependentBeans(beanFactory, dependent, collected);
+            }
+        }
+    }
+
+    private static boolean dependsOn(BeanDefinition<?> definition, Set<Class<?>> affected) {
+        for (Class<?> component : definition.getRequiredComponents()) {
+            for (Class<?> type : affected) {
+                if (component.isAssignableFrom(type)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    String toBeanClassName(File file) {
+        String path = classesDirectory.toPath().relativize(file.toPath()).toString();
+        if (!path.endsWith(CLASS_EXTENSION)) {
+            return null;
+        }
+
+        String className = path.substring(0, path.length() - CLASS_EXTENSION.length()).replace(File.separatorChar, '.');
+        int lastDot = className.lastIndexOf('.');
+        String packagePrefix = className.substring(0, lastDot + 1);
+        String simpleName = className.substring(lastDot + 1);
+
+        if (simpleName.startsWith("$")) {
+            if (simpleName.endsWith(DEFINITION_CLASS_SUFFIX)) {
+                return packagePrefix + simpleName.substring(1, simpleName.length() - DEFINITION_CLASS_SUFFIX.length());
+            }
+            if (simpleName.endsWith(DEFINITION_SUFFIX)) {
+                return packagePrefix + simpleName.substring(1, simpleName.length() - DEFINITION_SUFFIX.length());
+            }
+            return null;
+        }
+
+        return className;
+    }
+
+    // the definitions of Foo are $FooDefinition, the definitions of its factory methods are $Foo$Method0Definition
+    private static boolean isGeneratedFor(String prefix, String name) {
+        String rest = name.substring(prefix.length());
+        return rest.startsWith(DEFINITION_SUFFIX) || rest.startsWith("$");
+    }
+
+    /**
+     * Loads the changed class, its inner classes and its generated definitions from the classes directory and
+     * delegates everything else to the application class loader.
+     */
+    private static final class ReloadingClassLoader extends URLClassLoader {
+
+        private final String className;
+        private final String generatedPrefix;
+
+        ReloadingClassLoader(File classesDirectory, ClassLoader parent, String className) throws MalformedURLException {
+            super(new URL[] { classesDirectory.toURI().toURL() }, parent);
+            int lastDot = className.lastIndexOf('.');
+            this.className = className;
+            this.generatedPrefix = className.substring(0, lastDot + 1) + "$" + className.substring(lastDot + 1);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isReloaded(name)) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    loaded = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+
+        private boolean isReloaded(String name) {
+            if (name.equals(className) || name.startsWith(className + "$")) {
+                return true;
+            }
+            return name.startsWith(generatedPrefix) && isGeneratedFor(generatedPrefix, name);
+        }
+
+    }
+
+}
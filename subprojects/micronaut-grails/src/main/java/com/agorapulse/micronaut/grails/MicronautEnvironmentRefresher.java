@@ -0,0 +1,267 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.env.MapPropertySource;
+import io.micronaut.runtime.context.scope.refresh.RefreshEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.agorapulse.micronaut.grails.GrailsPropertyTranslatingCustomizer.collapse;
+
+/**
+ * Propagates the changes of the Spring environment into the Micronaut contexts.
+ * <p>
+ * The properties of the Spring environment are compared with the snapshot taken when the Spring application context
+ * was refreshed. The changed properties and their translated alternatives are pushed into the parent Micronaut
+ * environment and {@link RefreshEvent} containing only the changed keys is published into every Micronaut context
+ * so only the affected <code>@Refreshable</code> beans are refreshed.
+ * <p>
+ * The refresh is triggered by calling {@link #refresh()} or by publishing <code>EnvironmentChangeEvent</code> from Spring
+ * Cloud Context. The refresher is only registered if <code>micronaut.grails.environment-refresh.enabled</code> property
+ * is set to <code>true</code>.
+ */
+public class MicronautEnvironmentRefresher implements ApplicationListener<ApplicationEvent>, ApplicationContextAware {
+
+    /**
+     * The property which has to be set to <code>true</code> to register the refresher.
+     */
+    public static final String ENABLED_PROPERTY = "micronaut.grails.environment-refresh.enabled";
+
+    /**
+     * Constant for the property source with the refreshed properties.
+     */
+    public static final String PROPERTY_SOURCE_NAME = "grails-refreshed";
+
+    /**
+     * The highest precedence so the refreshed values always win.
+     */
+    public static final int PROPERTY_SOURCE_POSITION = Integer.MAX_VALUE - 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicronautEnvironmentRefresher.class);
+    private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+    private final Map<String, Object> refreshed = new LinkedHashMap<>();
+    private final Class<?> environmentChangeEvent = findEnvironmentChangeEvent();
+
+    private ApplicationContext springContext;
+    private Map<String, Object> snapshot;
+
+    @Override
+    public void onApplicationEvent(@Nonnull ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent && ((ContextRefreshedEvent) event).getApplicationContext() == springContext) {
+            synchronized (this) {
+                // later refreshes are compared with the snapshot taken by the previous refresh
+                if (snapshot == null) {
+                    snapshot = takeSnapshot(springContext.getEnvironment());
+                }
+            }
+            return;
+        }
+
+        if (environmentChangeEvent != null && environmentChangeEvent.isInstance(event)) {
+            refresh();
+        }
+    }
+
+    /**
+     * Compares the current Spring environment with the previous state and propagates the changes into the Micronaut
+     * contexts.
+     *
+     * @return the names of the changed properties including their translated alternatives
+     */
+    public synchronized Set<String> refresh() {
+        if (springContext == null || snapshot == null) {
+            return Collections.emptySet();
+        }
+
+        Environment environment = springContext.getEnvironment();
+        Map<String, Object> current = takeSnapshot(environment);
+
+        Set<String> changed = new HashSet<>(current.keySet());
+        changed.addAll(snapshot.keySet());
+        changed.removeIf(key -> Objects.equals(snapshot.get(key), current.get(key)));
+
+        snapshot = current;
+
+        if (changed.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Map<String, Object> changes = translate(changed, current);
+
+        LOGGER.info("Spring environment properties changed: {}", changes.keySet());
+
+        Optional<MicronautContextHolder> holder = findContextHolder();
+        Optional<io.micronaut.context.ApplicationContext> parentContext = holder.map(MicronautContextHolder::getContext);
+        parentContext.ifPresent(context -> refreshParent(context, changes));
+        holder.ifPresent(MicronautContextHolder::invalidateHandles);
+
+        for (DefaultGrailsMicronautBeanProcessor processor : springContext.getBeansOfType(DefaultGrailsMicronautBeanProcessor.class, false, false).values()) {
+            io.micronaut.context.ApplicationContext context = processor.getMicronautContext();
+            if (context != null && !parentContext.filter(context::equals).isPresent()) {
+                // the legacy context reads the Spring environment directly
+                context.publishEvent(new RefreshEvent(new HashMap<>(changes)));
+            }
+        }
+
+        return changes.keySet();
+    }
+
+    @Override
+    public void setApplicationContext(@Nonnull ApplicationContext applicationContext) throws BeansException {
+        this.springContext = applicationContext;
+    }
+
+    private Map<String, Object> translate(Set<String> changed, Map<String, Object> current) {
+        List<GrailsPropertyTranslatingCustomizer> customizers = collapse(springContext.getBeansOfType(MicronautBeanImporter.class, false, false)
+            .values()
+            .stream()
+            .flatMap(i -> i.getCustomizers().stream())
+            .collect(Collectors.toList()))
+            .stream()
+            .filter(GrailsPropertyTranslatingCustomizer.class::isInstance)
+            .map(GrailsPropertyTranslatingCustomizer.class::cast)
+            .collect(Collectors.toList());
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (String key : changed) {
+            Object value = current.get(key);
+            changes.put(key, value);
+            for (GrailsPropertyTranslatingCustomizer customizer : customizers) {
+                for (String original : customizer.getOriginalNames(key)) {
+                    if (!current.containsKey(original)) {
+                        changes.put(original, value);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    private void refreshParent(io.micronaut.context.ApplicationContext context, Map<String, Object> changes) {
+        changes.forEach((key, value) -> {
+            if (value == null) {
+                refreshed.remove(key);
+            } else {
+                refreshed.put(key, value);
+            }
+        });
+
+        io.micronaut.context.env.Environment micronautEnvironment = context.getEnvironment();
+        micronautEnvironment.addPropertySource(new MapPropertySource(PROPERTY_SOURCE_NAME, new LinkedHashMap<>(refreshed)) {
+            @Override
+            public int getOrder() {
+                return PROPERTY_SOURCE_POSITION;
+            }
+        });
+
+        // the whole environment is reloaded so it may report changes which do not come from the Spring environment
+        Map<String, Object> diff = new LinkedHashMap<>(micronautEnvironment.refreshAndDiff());
+        diff.keySet().removeIf(key -> !isChanged(key, changes.keySet()));
+        if (!diff.isEmpty()) {
+            context.publishEvent(new RefreshEvent(diff));
+        }
+    }
+
+    /**
+     * @param key the key reported by the Micronaut environment
+     * @param changed the names of the properties changed in the Spring environment
+     * @return <code>true</code> if the key is one of the changed properties, or their parent or nested property
+     */
+    static boolean isChanged(String key, Set<String> changed) {
+        if (changed.contains(key)) {
+            return true;
+        }
+        for (String name : changed) {
+            if (name.startsWith(key + ".") || key.startsWith(name + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> findEnvironmentChangeEvent() {
+        ClassLoader classLoader = MicronautEnvironmentRefresher.class.getClassLoader();
+        if (ClassUtils.isPresent(ENVIRONMENT_CHANGE_EVENT, classLoader)) {
+            return ClassUtils.resolveClassName(ENVIRONMENT_CHANGE_EVENT, classLoader);
+        }
+        return null;
+    }
+
+    private Optional<MicronautContextHolder> findContextHolder() {
+        try {
+            return Optional.of(springContext.getBean(MicronautContextHolder.class));
+        } catch (NoSuchBeanDefinitionException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, Object> takeSnapshot(Environment environment) {
+        Map<String, Object> result = new HashMap<>();
+        if (!(environment instanceof ConfigurableEnvironment)) {
+            return result;
+        }
+
+        List<String> names = new ArrayList<>();
+        for (PropertySource<?> source : ((ConfigurableEnvironment) environment).getPropertySources()) {
+            if (source instanceof EnumerablePropertySource && !StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME.equals(source.getName())) {
+                Collections.addAll(names, ((EnumerablePropertySource<?>) source).getPropertyNames());
+            }
+        }
+
+        for (String name : names) {
+            if (!result.containsKey(name)) {
+                try {
+                    result.put(name, environment.getProperty(name, Object.class));
+                } catch (RuntimeException e) {
+                    // unresolvable placeholders
+                    LOGGER.debug("Cannot resolve property " + name, e);
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -18,30 +18,46 @@
 package com.agorapulse.micronaut.grails;
 
 import grails.boot.GrailsApp;
+import grails.util.Environment;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.ApplicationContextConfiguration;
 import io.micronaut.context.DefaultApplicationContext;
+import io.micronaut.context.DefaultBeanResolutionContext;
+import io.micronaut.context.Qualifier;
 import io.micronaut.context.env.DefaultEnvironment;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.core.reflect.ClassUtils;
 import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.BeanDefinitionReference;
 import io.micronaut.spring.context.factory.MicronautBeanFactoryConfiguration;
 import org.grails.core.util.BeanCreationProfilingPostProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.boot.ApplicationArguments;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.io.ResourceLoader;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MicronautGrailsApp extends GrailsApp {
 
@@ -50,6 +66,8 @@ public class MicronautGrailsApp extends GrailsApp {
     public static final String ENVIRONMENT_LEGACY = "micronaut-grails-legacy";
     public static final String ENVIRONMENT = "micronaut-grails";
 
+    public static final String ROLE_PROPERTY = "micronaut.grails.role";
+
 
     // removed from the latest SpringApplication
     /**
@@ -73,16 +91,22 @@ public class MicronautGrailsApp extends GrailsApp {
     public static final String DEFAULT_REACTIVE_WEB_CONTEXT_CLASS = "org.springframework."
         + "boot.web.reactive.context.AnnotationConfigReactiveWebServerApplicationContext";
 
-    private class MicronautGrailsAppContextConfiguration implements ApplicationContextConfiguration {
+    static class MicronautGrailsAppContextConfiguration implements ApplicationContextConfiguration {
         private final ClassLoader applicationClassLoader;
         private final MicronautGrailsAutoConfiguration configuration;
+        private final ConfigurableEnvironment springEnvironment;
+        private final String role;
 
-        public MicronautGrailsAppContextConfiguration(
+        MicronautGrailsAppContextConfiguration(
             ClassLoader applicationClassLoader,
-            MicronautGrailsAutoConfiguration configuration
+            MicronautGrailsAutoConfiguration configuration,
+            @Nullable ConfigurableEnvironment springEnvironment,
+            @Nullable String role
         ) {
             this.applicationClassLoader = applicationClassLoader;
             this.configuration = configuration;
+            this.springEnvironment = springEnvironment;
+            this.role = role;
         }
 
         @Override
@@ -91,8 +115,11 @@ public class MicronautGrailsApp extends GrailsApp {
             List<String> environments = new ArrayList<>();
             environments.add(ENVIRONMENT);
             environments.add(configuration.getCompatibilityMode().getEnvironment());
-            if (getConfiguredEnvironment() != null) {
-                environments.addAll(Arrays.asList(getConfiguredEnvironment().getActiveProfiles()));
+            if (springEnvironment != null) {
+                environments.addAll(Arrays.asList(springEnvironment.getActiveProfiles()));
+            }
+            if (role != null && !environments.contains(role)) {
+                environments.add(role);
             }
             return environments;
         }
@@ -110,12 +137,136 @@ public class MicronautGrailsApp extends GrailsApp {
         public MicronautGrailsAutoConfiguration getConfiguration() {
             return configuration;
         }
+
+        @Nullable
+        public String getRole() {
+            return role;
+        }
     }
 
-    private static class MicronautGrailsAppContext extends DefaultApplicationContext {
+    static class MicronautGrailsAppContext extends DefaultApplicationContext {
 
-        public MicronautGrailsAppContext(MicronautGrailsAppContextConfiguration micronautConfiguration) {
+        private final List<Runnable> registrationListeners = new CopyOnWriteArrayList<>();
+        private final String role;
+        private final BeanExposure roleBeans;
+        private final BeanExposure exposure;
+        private final List<Class<?>> beanExcludes = new ArrayList<>();
+        private int exposedBeanCount = -1;
+
+        MicronautGrailsAppContext(MicronautGrailsAppContextConfiguration micronautConfiguration) {
             super(micronautConfiguration);
+            this.role = micronautConfiguration.getRole();
+            this.roleBeans = role == null ? null : micronautConfiguration.getConfiguration().getRoles().get(role);
+            this.exposure = micronautConfiguration.getConfiguration().getBeanExposure();
+        }
+
+        @Override
+        @Nonnull
+        protected List<BeanDefinitionReference> resolveBeanDefinitionReferences() {
+            List<BeanDefinitionReference> references = selectRoleBeans(super.resolveBeanDefinitionReferences());
+            limitBeanExposure(references);
+            return references;
+        }
+
+        /**
+         * Hides given beans from the Spring application context, must be called before the context is started.
+         *
+         * @param excludes the types of the beans which should not be visible to Spring
+         */
+        void excludeBeans(List<Class<?>> excludes) {
+            beanExcludes.addAll(excludes);
+            getEnvironment().addPropertySource(BEAN_EXCLUDES_SOURCE, Collections.singletonMap(MicronautBeanFactoryConfiguration.PREFIX + ".bean-excludes", new ArrayList<>(beanExcludes)));
+        }
+
+        /**
+         * @return the number of Micronaut beans visible to Spring or <code>-1</code> if the bean exposure is not limited
+         */
+        int getExposedBeanCount() {
+            return exposedBeanCount;
+        }
+
+        private List<BeanDefinitionReference> selectRoleBeans(List<BeanDefinitionReference> references) {
+            if (roleBeans == null) {
+                return references;
+            }
+
+            List<BeanDefinitionReference> selected = new ArrayList<>();
+            for (BeanDefinitionReference reference : references) {
+                if (isRequired(reference) || reference.isPresent() && roleBeans.isExposed(reference)) {
+                    selected.add(reference);
+                }
+            }
+
+            LOGGER.info("Loading " + selected.size() + " of " + references.size() + " Micronaut bean definitions for role " + role);
+            return selected;
+        }
+
+        // the references are read before any bean is created so the excludes are known to the Spring bridge
+        private void limitBeanExposure(List<BeanDefinitionReference> references) {
+            if (exposure == null) {
+                return;
+            }
+
+            List<Class<?>> hidden = new ArrayList<>();
+            List<BeanDefinitionReference<?>> exposed = new ArrayList<>();
+            for (BeanDefinitionReference<?> reference : references) {
+                if (!reference.isPresent()) {
+                    continue;
+                }
+                if (exposure.isExposed(reference)) {
+                    exposed.add(reference);
+                } else {
+                    hidden.add(reference.getBeanType());
+                }
+            }
+
+            int total = exposed.size() + hidden.size();
+
+            // Spring bridge excludes every bean assignable to the excluded type, not just the exact definition
+            hidden.removeIf(type -> isExtendedByAny(type, exposed));
+
+            exposedBeanCount = total - hidden.size();
+
+            if (!hidden.isEmpty()) {
+                excludeBeans(hidden);
+                LOGGER.debug("Hidden " + hidden.size() + " of " + total + " Micronaut beans from Spring");
+            }
+        }
+
+        private static boolean isExtendedByAny(Class<?> type, List<BeanDefinitionReference<?>> exposed) {
+            for (BeanDefinitionReference<?> reference : exposed) {
+                if (type.isAssignableFrom(reference.getBeanType())) {
+                    LOGGER.warn("Micronaut bean " + type.getName() + " stays visible to Spring because it is extended by exposed bean " + reference.getName());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        <T> T createBean(BeanDefinition<T> definition, @Nullable Qualifier<T> qualifier) {
+            return doCreateBean(new DefaultBeanResolutionContext(this, definition), definition, qualifier, false, null);
+        }
+
+        @Override
+        @Nonnull
+        public <T> ApplicationContext registerSingleton(@Nonnull Class<T> type, @Nonnull T singleton, @Nullable Qualifier<T> qualifier, boolean inject) {
+            ApplicationContext result = super.registerSingleton(type, singleton, qualifier, inject);
+            registrationListeners.forEach(Runnable::run);
+            return result;
+        }
+
+        private static boolean isRequired(BeanDefinitionReference reference) {
+            String name = reference.getName();
+            for (String requiredPackage : ROLE_REQUIRED_PACKAGES) {
+                if (name.startsWith(requiredPackage)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void addRegistrationListener(Runnable listener) {
+            registrationListeners.add(listener);
         }
 
         @Override
@@ -128,6 +279,69 @@ public class MicronautGrailsApp extends GrailsApp {
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MicronautGrailsApp.class);
+    private static final String BEAN_EXCLUDES_SOURCE = "grails-config";
+    private static final List<String> ROLE_REQUIRED_PACKAGES = Arrays.asList(
+        MicronautGrailsApp.class.getPackage().getName() + ".",
+        "io.micronaut.context.",
+        "io.micronaut.runtime.",
+        "io.micronaut.spring."
+    );
+
+    static void shareInfrastructure(
+        ApplicationContext micronautContext,
+        ConfigurableApplicationContext applicationContext,
+        Collection<SharedInfrastructure> shared,
+        SharedInfrastructure.Owner owner
+    ) {
+        if (shared == null || shared.isEmpty()) {
+            return;
+        }
+
+        ConfigurableListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+        for (SharedInfrastructure infrastructure : shared) {
+            Optional<Object> instance = infrastructure.find(micronautContext);
+            if (!instance.isPresent()) {
+                LOGGER.warn("Cannot share " + infrastructure + " because it is not available in the Micronaut context");
+                continue;
+            }
+
+            String[] names = infrastructure.getBeanNames();
+            beanFactory.registerSingleton(names[0], instance.get());
+            for (int i = 1; i < names.length; i++) {
+                beanFactory.registerAlias(names[0], names[i]);
+            }
+
+            if (owner == SharedInfrastructure.Owner.SPRING && beanFactory instanceof DefaultSingletonBeanRegistry) {
+                ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(names[0], () -> infrastructure.dispose(instance.get()));
+            }
+
+            LOGGER.debug("Shared " + infrastructure + " from the Micronaut context as " + Arrays.toString(names));
+        }
+    }
+
+    private static void watchForReload(ConfigurableApplicationContext context, MicronautGrailsAutoConfiguration app) {
+        CodeSource codeSource = app.getClass().getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null || !"file".equals(codeSource.getLocation().getProtocol())) {
+            return;
+        }
+
+        File classesDirectory;
+        try {
+            classesDirectory = new File(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            LOGGER.warn("Cannot watch " + codeSource.getLocation() + " for changes", e);
+            return;
+        }
+
+        if (!classesDirectory.isDirectory()) {
+            return;
+        }
+
+        ApplicationContext micronautContext = context.getBean(MicronautContextHolder.class).getContext();
+        MicronautDevelopmentReloader reloader = new MicronautDevelopmentReloader(micronautContext, context, classesDirectory, app.getClass().getClassLoader());
+        context.addApplicationListener(reloader);
+        reloader.start();
+    }
 
     // copy pasted
 
@@ -157,6 +371,8 @@ public class MicronautGrailsApp extends GrailsApp {
     }
 
 
+    private MicronautGrailsAutoConfiguration application;
+
     public MicronautGrailsApp(Class... sources) {
         super(sources);
     }
@@ -201,6 +417,28 @@ public class MicronautGrailsApp extends GrailsApp {
         return null;
     }
 
+    @Override
+    protected void afterRefresh(ConfigurableApplicationContext context, ApplicationArguments args) {
+        super.afterRefresh(context, args);
+
+        MicronautGrailsAutoConfiguration app = getApplication();
+
+        Duration warmUpTimeout = app.getWarmUpTimeout();
+        if (warmUpTimeout != null && !warmUpTimeout.isZero() && !warmUpTimeout.isNegative()) {
+            new WarmUp(context, warmUpTimeout).run();
+        }
+
+        if (app.isDevelopmentReload() && Environment.isDevelopmentMode()) {
+            watchForReload(context, app);
+        }
+
+        if (app.isDiagnosticsReport()) {
+            for (MicronautGrailsDiagnostics.ContextReport report : new MicronautGrailsDiagnostics(context).report()) {
+                LOGGER.info("Context " + report);
+            }
+        }
+    }
+
     @Override
     protected void configureEnvironment(ConfigurableEnvironment environment, String[] args) {
         super.configureEnvironment(environment, args);
@@ -221,7 +459,12 @@ public class MicronautGrailsApp extends GrailsApp {
 
         MicronautGrailsAutoConfiguration app = getApplication();
         ClassLoader applicationClassLoader = GrailsApp.class.getClassLoader();
-        MicronautGrailsAppContextConfiguration micronautConfiguration = new MicronautGrailsAppContextConfiguration(applicationClassLoader, app);
+        MicronautGrailsAppContextConfiguration micronautConfiguration = new MicronautGrailsAppContextConfiguration(
+            applicationClassLoader,
+            app,
+            getConfiguredEnvironment(),
+            resolveRole(app)
+        );
 
         List<Class<?>> beanExcludes = new ArrayList<>();
         beanExcludes.add(ConversionService.class);
@@ -229,15 +472,33 @@ public class MicronautGrailsApp extends GrailsApp {
         beanExcludes.add(PropertyResolver.class);
         beanExcludes.add(ConfigurableEnvironment.class);
         ClassUtils.forName("com.fasterxml.jackson.databind.ObjectMapper", getClassLoader()).ifPresent(beanExcludes::add);
-        ApplicationContext micronautContext = new MicronautGrailsAppContext(micronautConfiguration);
+        MicronautGrailsAppContext micronautContext = new MicronautGrailsAppContext(micronautConfiguration);
 
-        micronautContext.getEnvironment().addPropertySource("grails-config", Collections.singletonMap(MicronautBeanFactoryConfiguration.PREFIX + ".bean-excludes", beanExcludes));
+        micronautContext.excludeBeans(beanExcludes);
         micronautContext.registerSingleton(MicronautGrailsAutoConfiguration.class, app);
         micronautContext.start();
 
+        int exposed = micronautContext.getExposedBeanCount();
+        if (exposed >= 0) {
+            LOGGER.info("Exposed " + exposed + " Micronaut beans to Spring");
+        }
+
         ConfigurableApplicationContext parentContext = micronautContext.getBean(ConfigurableApplicationContext.class);
+
+        if (app.isParentContextIndexed()) {
+            ParentContextIndex index = new ParentContextIndex(parentContext);
+            micronautContext.addRegistrationListener(index::invalidate);
+            parentContext = index.getContext();
+        }
+
         applicationContext.setParent(parentContext);
-        applicationContext.addApplicationListener(new MicronautShutdownListener(micronautContext));
+        shareInfrastructure(micronautContext, applicationContext, app.getSharedInfrastructure(), app.getSharedInfrastructureOwner());
+        Duration shutdownTimeout = app.getShutdownTimeout();
+        if (shutdownTimeout != null && !shutdownTimeout.isZero() && !shutdownTimeout.isNegative()) {
+            applicationContext.addApplicationListener(new MicronautShutdownCoordinator(micronautContext, shutdownTimeout));
+        } else {
+            applicationContext.addApplicationListener(new MicronautShutdownListener(micronautContext));
+        }
 
         LOGGER.info("Started Micronaut Parent Application Context in " + (System.currentTimeMillis() - now) + " ms");
 
@@ -249,8 +510,46 @@ public class MicronautGrailsApp extends GrailsApp {
         return applicationContext;
     }
 
+    @Nullable
+    private String resolveRole(MicronautGrailsAutoConfiguration app) {
+        Map<String, BeanExposure> roles = app.getRoles();
+        if (roles == null || roles.isEmpty()) {
+            return null;
+        }
+
+        ConfigurableEnvironment environment = getConfiguredEnvironment();
+        if (environment == null) {
+            return null;
+        }
+
+        String role = environment.getProperty(ROLE_PROPERTY);
+        if (role != null) {
+            if (roles.containsKey(role)) {
+                return role;
+            }
+            LOGGER.warn("Unknown role " + role + ", expected one of " + roles.keySet() + ". Loading all Micronaut beans.");
+            return null;
+        }
+
+        for (String profile : environment.getActiveProfiles()) {
+            if (roles.containsKey(profile)) {
+                return profile;
+            }
+        }
+
+        return null;
+    }
+
     @Nonnull
     private MicronautGrailsAutoConfiguration getApplication() {
+        if (application == null) {
+            application = createApplication();
+        }
+        return application;
+    }
+
+    @Nonnull
+    private MicronautGrailsAutoConfiguration createApplication() {
         try {
             return getAllSources()
                 .stream()
@@ -20,10 +20,12 @@ package com.agorapulse.micronaut.grails;
 import grails.boot.config.GrailsAutoConfiguration;
 import io.micronaut.context.env.Environment;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class MicronautGrailsAutoConfiguration extends GrailsAutoConfiguration {
@@ -60,6 +62,92 @@ public class MicronautGrailsAutoConfiguration extends GrailsAutoConfiguration {
         return CompatibilityMode.STRICT;
     }
 
+    /**
+     * @return <code>true</code> if the parent Micronaut context should be reused in the {@link CompatibilityMode#LEGACY} mode
+     */
+    public boolean isLegacySingleContext() {
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the lookups delegated to the parent Micronaut context should be cached
+     */
+    public boolean isParentContextIndexed() {
+        return false;
+    }
+
+    /**
+     * @return the Micronaut beans visible to Spring or <code>null</code> to expose all of them
+     * @see BeanExposure#builder()
+     */
+    public BeanExposure getBeanExposure() {
+        return null;
+    }
+
+    /**
+     * @return the Micronaut beans loaded for each of the role names
+     */
+    public Map<String, BeanExposure> getRoles() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return the infrastructure beans created only by the Micronaut context and shared with Spring
+     */
+    public Collection<SharedInfrastructure> getSharedInfrastructure() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return the context which shuts down the shared executors
+     * @see #getSharedInfrastructure()
+     */
+    public SharedInfrastructure.Owner getSharedInfrastructureOwner() {
+        return SharedInfrastructure.Owner.MICRONAUT;
+    }
+
+    /**
+     * @return <code>true</code> if the Micronaut <code>io</code> executor should use virtual threads on Java 21 and newer
+     */
+    public boolean isVirtualThreads() {
+        return false;
+    }
+
+    /**
+     * @return the maximum time spent by shutting down the Micronaut context or <code>null</code> to close it synchronously
+     */
+    public Duration getShutdownTimeout() {
+        return null;
+    }
+
+    /**
+     * @return the time budget of the warm-up phase or <code>null</code> to skip the warm-up
+     */
+    public Duration getWarmUpTimeout() {
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if the recompiled Micronaut beans should be reloaded in the development mode
+     */
+    public boolean isDevelopmentReload() {
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the diagnostics report should be logged on startup
+     */
+    public boolean isDiagnosticsReport() {
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the application should start in the background when deployed as a WAR
+     */
+    public boolean isAsyncServletStartup() {
+        return false;
+    }
+
     public Collection<Package> getPackages() {
         return Collections.emptyList();
     }
@@ -18,6 +18,7 @@
 package com.agorapulse.micronaut.grails;
 
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -39,6 +40,17 @@ public class MicronautGrailsConfiguration {
         return MicronautBeanImporter.create().customize(PropertyTranslatingCustomizer.grails());
     }
 
+    @Bean
+    @ConditionalOnProperty(name = MicronautEnvironmentRefresher.ENABLED_PROPERTY, havingValue = "true")
+    MicronautEnvironmentRefresher micronautEnvironmentRefresher() {
+        return new MicronautEnvironmentRefresher();
+    }
+
+    @Bean
+    MicronautGrailsDiagnostics micronautGrailsDiagnostics() {
+        return new MicronautGrailsDiagnostics();
+    }
+
     @Bean
     @Profile("!micronaut-grails-strict & !micronaut-grails-bridge")
     BeanFactoryPostProcessor defaultGrailsMicronautBeanProcessor(List<MicronautBeanImporter> importers, Environment env) {
@@ -63,6 +75,12 @@ public class MicronautGrailsConfiguration {
             expectedMapProperties);
     }
 
+    @Bean
+    @Profile("!micronaut-grails-strict & !micronaut-grails-bridge")
+    LegacyMigrationAnalyzer legacyMigrationAnalyzer() {
+        return new LegacyMigrationAnalyzer();
+    }
+
     @Bean
     @Profile("micronaut-grails-bridge")
     BeanFactoryPostProcessor forwardingGrailsMicronautBeanProcessor(List<MicronautBeanImporter> importers, Environment env) {
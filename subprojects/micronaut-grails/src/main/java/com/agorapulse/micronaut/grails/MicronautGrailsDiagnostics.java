@@ -0,0 +1,248 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.BeanRegistration;
+import io.micronaut.context.DefaultBeanContext;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports the bean definitions, instantiated singletons and their estimated retained size for every context
+ * of the application - the parent Micronaut context, the Micronaut context created for the legacy compatibility mode
+ * and the Spring application context.
+ * <p>
+ * The retained size is only an estimate calculated by walking the object graph of every singleton. Objects shared by
+ * several singletons are counted only for the first singleton which reaches them.
+ */
+public class MicronautGrailsDiagnostics implements ApplicationContextAware {
+
+    private static final int MAX_OBJECTS = 1_000_000;
+    private static final int MAX_TYPES = 10;
+
+    /**
+     * Report for a single context.
+     */
+    public static class ContextReport {
+
+        private final String name;
+        private final int definitions;
+        private final int singletons;
+        private final long estimatedBytes;
+        private final List<TypeReport> types;
+
+        ContextReport(String name, int definitions, int singletons, long estimatedBytes, List<TypeReport> types) {
+            this.name = name;
+            this.definitions = definitions;
+            this.singletons = singletons;
+            this.estimatedBytes = estimatedBytes;
+            this.types = Collections.unmodifiableList(types);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of the bean definitions registered in the context
+         */
+        public int getDefinitions() {
+            return definitions;
+        }
+
+        /**
+         * @return the number of the singletons already instantiated by the context
+         */
+        public int getSingletons() {
+            return singletons;
+        }
+
+        /**
+         * @return the estimated retained size of all instantiated singletons in bytes
+         */
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        /**
+         * @return the bean types ordered by their estimated retained size, the biggest first
+         */
+        public List<TypeReport> getTypes() {
+            return types;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(name)
+                .append(": ").append(definitions).append(" definitions, ")
+                .append(singletons).append(" singletons, ~")
+                .append(estimatedBytes / 1024).append(" KB");
+            for (TypeReport type : types) {
+                builder.append("\n    ").append(type);
+            }
+            return builder.toString();
+        }
+
+    }
+
+    /**
+     * Report for the singletons of the same type within a single context.
+     */
+    public static class TypeReport {
+
+        private final String type;
+        private final int count;
+        private final long estimatedBytes;
+
+        TypeReport(String type, int count, long estimatedBytes) {
+            this.type = type;
+            this.count = count;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return type + " x" + count + " ~" + estimatedBytes / 1024 + " KB";
+        }
+
+    }
+
+    private ApplicationContext springContext;
+
+    public MicronautGrailsDiagnostics() { }
+
+    public MicronautGrailsDiagnostics(ApplicationContext springContext) {
+        this.springContext = springContext;
+    }
+
+    @Override
+    public void setApplicationContext(@Nonnull ApplicationContext applicationContext) throws BeansException {
+        this.springContext = applicationContext;
+    }
+
+    /**
+     * Collects the report for every context of the application.
+     *
+     * @return the reports for the parent Micronaut context, the legacy Micronaut contexts and the Spring context
+     */
+    public List<ContextReport> report() {
+        List<ContextReport> reports = new ArrayList<>();
+        if (springContext == null) {
+            return reports;
+        }
+
+        io.micronaut.context.ApplicationContext parent = findParentMicronautContext();
+        if (parent != null) {
+            reports.add(micronaut("micronaut", parent));
+        }
+
+        for (DefaultGrailsMicronautBeanProcessor processor : springContext.getBeansOfType(DefaultGrailsMicronautBeanProcessor.class, false, false).values()) {
+            io.micronaut.context.ApplicationContext context = processor.getMicronautContext();
+            if (context != null && context != parent && context.isRunning()) {
+                reports.add(micronaut("micronaut-legacy", context));
+            }
+        }
+
+        if (springContext instanceof ConfigurableApplicationContext && ((ConfigurableApplicationContext) springContext).isActive()) {
+            reports.add(spring("spring", ((ConfigurableApplicationContext) springContext).getBeanFactory()));
+        }
+
+        return reports;
+    }
+
+    private static ContextReport micronaut(String name, io.micronaut.context.ApplicationContext context) {
+        int definitions = context instanceof DefaultBeanContext
+            ? ((DefaultBeanContext) context).getBeanDefinitionReferences().size()
+            : context.getAllBeanDefinitions().size();
+
+        Map<Object, String> singletons = new IdentityHashMap<>();
+        for (BeanRegistration<Object> registration : context.getActiveBeanRegistrations(Object.class)) {
+            singletons.put(registration.getBean(), registration.getBeanDefinition().getBeanType().getName());
+        }
+
+        return estimate(name, definitions, singletons);
+    }
+
+    private static ContextReport spring(String name, ConfigurableListableBeanFactory beanFactory) {
+        Map<Object, String> singletons = new IdentityHashMap<>();
+        for (String singletonName : beanFactory.getSingletonNames()) {
+            Object singleton = beanFactory.getSingleton(singletonName);
+            if (singleton != null) {
+                singletons.put(singleton, singleton.getClass().getName());
+            }
+        }
+
+        return estimate(name, beanFactory.getBeanDefinitionCount(), singletons);
+    }
+
+    private static ContextReport estimate(String name, int definitions, Map<Object, String> singletons) {
+        Set<Object> roots = singletons.keySet();
+        ObjectSizeEstimator estimator = new ObjectSizeEstimator(roots, MAX_OBJECTS);
+
+        Map<String, long[]> byType = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<Object, String> singleton : singletons.entrySet()) {
+            long size = estimator.estimate(singleton.getKey());
+            long[] stats = byType.computeIfAbsent(singleton.getValue(), t -> new long[2]);
+            stats[0]++;
+            stats[1] += size;
+            total += size;
+        }
+
+        List<TypeReport> types = new ArrayList<>();
+        byType.forEach((type, stats) -> types.add(new TypeReport(type, (int) stats[0], stats[1])));
+        types.sort(Comparator.comparingLong(TypeReport::getEstimatedBytes).reversed());
+
+        return new ContextReport(name, definitions, singletons.size(), total, new ArrayList<>(types.subList(0, Math.min(MAX_TYPES, types.size()))));
+    }
+
+    private io.micronaut.context.ApplicationContext findParentMicronautContext() {
+        try {
+            return springContext.getBean(MicronautContextHolder.class).getContext();
+        } catch (NoSuchBeanDefinitionException e) {
+            return null;
+        }
+    }
+
+}
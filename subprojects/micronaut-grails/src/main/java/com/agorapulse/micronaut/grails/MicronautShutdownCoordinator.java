@@ -0,0 +1,328 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.BeanRegistration;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.DisposableBeanDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Shuts down the Micronaut context within the given deadline.
+ * <p>
+ * The Micronaut executors are drained first so the work already submitted can finish while the beans it uses are
+ * still alive. No new work is accepted afterwards, including the work submitted by the shutdown hooks.
+ * The singletons with <code>@PreDestroy</code> hooks are then destroyed in phases. Each phase contains only
+ * the singletons which no other live bean depends on and they are destroyed in parallel. Singletons implementing
+ * {@link Ordered} are destroyed in separate phases, the ones with the highest order first. The listeners of
+ * {@link ShutdownEvent} and the beans they depend on are left to the context which publishes the event before
+ * destroying them. If the deadline is reached, the beans which are still being destroyed are logged.
+ *
+ * @see MicronautGrailsAutoConfiguration#getShutdownTimeout()
+ */
+class MicronautShutdownCoordinator implements ApplicationListener<ContextClosedEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicronautShutdownCoordinator.class);
+    private static final long SLOW_DESTROY_MILLIS = 100;
+    private static final String EVENT_LISTENER_ANNOTATION = "io.micronaut.runtime.event.annotation.EventListener";
+
+    private final ApplicationContext micronautContext;
+    private final Duration timeout;
+
+    MicronautShutdownCoordinator(ApplicationContext micronautContext, Duration timeout) {
+        this.micronautContext = micronautContext;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Closes the Micronaut context using the coordinator if {@link MicronautGrailsAutoConfiguration#getShutdownTimeout()}
+     * is set for given context or closes the context directly otherwise.
+     *
+     * @param micronautContext the context to be closed
+     */
+    static void close(ApplicationContext micronautContext) {
+        if (!micronautContext.isRunning()) {
+            return;
+        }
+
+        Duration timeout = micronautContext.findBean(MicronautGrailsAutoConfiguration.class)
+            .map(MicronautGrailsAutoConfiguration::getShutdownTimeout)
+            .orElse(null);
+
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            micronautContext.close();
+            return;
+        }
+
+        new MicronautShutdownCoordinator(micronautContext, timeout).shutdown();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        shutdown();
+    }
+
+    void shutdown() {
+        if (!micronautContext.isRunning()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        long deadline = started + timeout.toNanos();
+
+        List<ExecutorService> executors = new ArrayList<>();
+        micronautContext.getActiveBeanRegistrations(ExecutorService.class).forEach(registration -> executors.add(registration.getBean()));
+
+        drainExecutors(executors, deadline);
+        destroySingletons(deadline);
+        closeContext(deadline);
+
+        LOGGER.info("Micronaut context shut down in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+    }
+
+    private void drainExecutors(List<ExecutorService> executors, long deadline) {
+        executors.forEach(ExecutorService::shutdown);
+
+        for (ExecutorService executor : executors) {
+            try {
+                if (!executor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    LOGGER.warn("Executor " + executor + " has not finished the submitted tasks in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void destroySingletons(long deadline) {
+        List<BeanRegistration<?>> live = new ArrayList<>(micronautContext.getActiveBeanRegistrations(Object.class));
+        Set<BeanRegistration<?>> kept = findShutdownListenersAndDependencies(live);
+
+        List<BeanRegistration<?>> candidates = new ArrayList<>();
+        for (BeanRegistration<?> registration : live) {
+            BeanDefinition<?> definition = registration.getBeanDefinition();
+            if (definition instanceof DisposableBeanDefinition
+                && definition.isSingleton()
+                && !(registration.getBean() instanceof ExecutorService)
+                && !kept.contains(registration)
+            ) {
+                candidates.add(registration);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "micronaut-shutdown-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<BeanRegistration<?>> phase = nextPhase(candidates, live);
+            while (!phase.isEmpty()) {
+                List<Future<?>> futures = new ArrayList<>(phase.size());
+                for (BeanRegistration<?> registration : phase) {
+                    futures.add(executor.submit(() -> destroy(registration)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    if (!await(futures.get(i), phase.get(i).getBeanDefinition(), deadline)) {
+                        List<String> unfinished = new ArrayList<>();
+                        for (int j = 0; j < futures.size(); j++) {
+                            if (!futures.get(j).isDone()) {
+                                unfinished.add(phase.get(j).getBeanDefinition().getName());
+                            }
+                        }
+                        LOGGER.warn("Shutdown timeout " + timeout + " exceeded while destroying beans " + unfinished);
+                        return;
+                    }
+                }
+                candidates.removeAll(phase);
+                live.removeAll(phase);
+                phase = nextPhase(candidates, live);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Selects the candidates which no other live bean depends on and which have the highest order.
+     *
+     * @param candidates the registrations which are still to be destroyed
+     * @param live the registrations which have not been destroyed yet
+     * @return the registrations which can be destroyed in parallel, empty if none can be destroyed safely
+     */
+    static List<BeanRegistration<?>> nextPhase(List<BeanRegistration<?>> candidates, List<BeanRegistration<?>> live) {
+        List<BeanRegistration<?>> ready = new ArrayList<>();
+        for (BeanRegistration<?> candidate : candidates) {
+            if (live.stream().noneMatch(other -> other != candidate && dependsOn(other, candidate))) {
+                ready.add(candidate);
+            }
+        }
+
+        int highest = ready.stream().mapToInt(MicronautShutdownCoordinator::getOrder).max().orElse(0);
+        return ready.stream().filter(r -> getOrder(r) == highest).collect(Collectors.toList());
+    }
+
+    private static Set<BeanRegistration<?>> findShutdownListenersAndDependencies(List<BeanRegistration<?>> live) {
+        Set<BeanRegistration<?>> kept = new HashSet<>();
+        for (BeanRegistration<?> registration : live) {
+            if (registration.getBean() instanceof ApplicationEventListener || hasEventListenerMethods(registration.getBeanDefinition())) {
+                kept.add(registration);
+            }
+        }
+
+        boolean found = !kept.isEmpty();
+        while (found) {
+            found = false;
+            for (BeanRegistration<?> registration : live) {
+                if (!kept.contains(registration) && kept.stream().anyMatch(k -> dependsOn(k, registration))) {
+                    kept.add(registration);
+                    found = true;
+                }
+            }
+        }
+
+        return kept;
+    }
+
+    private static boolean hasEventListenerMethods(BeanDefinition<?> definition) {
+        return definition.getExecutableMethods().stream().anyMatch(m -> m.hasStereotype(EVENT_LISTENER_ANNOTATION));
+    }
+
+    private static boolean dependsOn(BeanRegistration<?> dependent, BeanRegistration<?> dependency) {
+        Class<?> type = dependency.getBean().getClass();
+        for (Class<?> component : dependent.getBeanDefinition().getRequiredComponents()) {
+            if (component.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int getOrder(BeanRegistration<?> registration) {
+        return registration.getBean() instanceof Ordered ? ((Ordered) registration.getBean()).getOrder() : 0;
+    }
+
+    private void destroy(BeanRegistration<?> registration) {
+        String name = registration.getBeanDefinition().getName();
+        long started = System.nanoTime();
+        try {
+            if (!SingletonRegistrations.destroy(micronautContext, registration)) {
+                LOGGER.debug("Bean " + name + " is left to be destroyed by the context");
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Exception destroying bean " + name, e);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        if (millis >= SLOW_DESTROY_MILLIS) {
+            LOGGER.info("Destroyed bean " + name + " in " + millis + " ms");
+        } else {
+            LOGGER.debug("Destroyed bean " + name + " in " + millis + " ms");
+        }
+    }
+
+    private boolean await(Future<?> future, BeanDefinition<?> definition, long deadline) {
+        try {
+            future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            LOGGER.error("Exception destroying bean " + definition.getName(), e.getCause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void closeContext(long deadline) {
+        List<Class<?>> beanTypes = new ArrayList<>();
+        micronautContext.getActiveBeanRegistrations(Object.class).forEach(registration -> beanTypes.add(registration.getBeanDefinition().getBeanType()));
+
+        Thread closing = new Thread(micronautContext::close, "micronaut-shutdown-close");
+        closing.setDaemon(true);
+        closing.start();
+        try {
+            closing.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining(deadline))));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (closing.isAlive()) {
+            StackTraceElement[] stackTrace = closing.getStackTrace();
+            List<String> closingBeans = findClosingBeans(stackTrace, beanTypes);
+            LOGGER.warn("Shutdown timeout " + timeout + " exceeded while closing the Micronaut context, "
+                + (closingBeans.isEmpty() ? "the context is closing at " + (stackTrace.length == 0 ? "unknown location" : stackTrace[0]) : "beans still closing: " + closingBeans));
+        }
+    }
+
+    /**
+     * Finds the beans whose methods are being executed, starting with the innermost call.
+     *
+     * @param stackTrace the stack trace of the thread closing the context
+     * @param beanTypes the types of the beans which were alive when the context started closing
+     * @return the names of the types of the beans being closed
+     */
+    static List<String> findClosingBeans(StackTraceElement[] stackTrace, Collection<Class<?>> beanTypes) {
+        Set<String> closingBeans = new LinkedHashSet<>();
+        for (StackTraceElement frame : stackTrace) {
+            for (Class<?> type : beanTypes) {
+                String name = type.getName();
+                if (frame.getClassName().equals(name) || frame.getClassName().startsWith(name + "$")) {
+                    closingBeans.add(name);
+                }
+            }
+        }
+        return new ArrayList<>(closingBeans);
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import groovy.lang.MetaClass;
+import io.micronaut.context.BeanContext;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the size of object graphs using reflection.
+ * <p>
+ * The estimate assumes 64-bit JVM with compressed references. The traversal never enters classes, class loaders,
+ * threads, Groovy meta classes, application contexts and environments, and it never enters the other roots so each object is counted
+ * only once for the first root which reaches it.
+ */
+class ObjectSizeEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int maxObjects;
+
+    /**
+     * @param roots all the roots which are going to be estimated
+     * @param maxObjects maximum number of objects visited in total
+     */
+    ObjectSizeEstimator(Collection<?> roots, int maxObjects) {
+        this.roots.addAll(roots);
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * @param root the root of the object graph
+     * @return the estimated size in bytes of the objects reachable from the root which have not been counted yet
+     */
+    long estimate(Object root) {
+        if (root == null || !visited.add(root)) {
+            return 0;
+        }
+
+        long size = 0;
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            Object current = stack.pop();
+            Class<?> type = current.getClass();
+
+            if (type.isArray()) {
+                size += arraySize(current, type.getComponentType());
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0, length = Array.getLength(current); i < length; i++) {
+                        push(stack, Array.get(current, i));
+                    }
+                }
+                continue;
+            }
+
+            long shallow = OBJECT_HEADER;
+            for (Field field : fields(type)) {
+                shallow += fieldSize(field.getType());
+                if (!field.getType().isPrimitive()) {
+                    try {
+                        push(stack, field.get(current));
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        // inaccessible field, only the reference is counted
+                    }
+                }
+            }
+            size += align(shallow);
+        }
+
+        return size;
+    }
+
+    private void push(Deque<Object> stack, Object value) {
+        if (value == null || roots.contains(value) || isExcluded(value) || visited.size() >= maxObjects || !visited.add(value)) {
+            return;
+        }
+        stack.push(value);
+    }
+
+    private static boolean isExcluded(Object value) {
+        return value instanceof Class
+            || value instanceof ClassLoader
+            || value instanceof Thread
+            || value instanceof MetaClass
+            || value instanceof BeanFactory
+            || value instanceof BeanContext
+            || value instanceof Environment
+            || value instanceof io.micronaut.context.env.Environment;
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> result = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                    } catch (RuntimeException e) {
+                        // module system prevents the access, the field will still be counted
+                    }
+                    result.add(field);
+                }
+            }
+            return result;
+        });
+    }
+
+    private static long arraySize(Object array, Class<?> componentType) {
+        return align(ARRAY_HEADER + (long) Array.getLength(array) * fieldSize(componentType));
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+}
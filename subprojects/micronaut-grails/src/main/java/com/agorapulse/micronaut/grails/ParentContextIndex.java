@@ -0,0 +1,229 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the lookups of the Grails' Spring application context which are delegated to the parent
+ * context backed by Micronaut.
+ * <p>
+ * The results of the type and annotation based name lookups are cached as well as the misses of the name based
+ * lookups. The cache is invalidated when a new bean is registered into the Micronaut context or directly into
+ * the parent context.
+ *
+ * @since 3.0
+ */
+class ParentContextIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParentContextIndex.class);
+
+    private static final List<String> CACHED_NAME_LOOKUPS = Arrays.asList(
+        "getBeanNamesForType",
+        "getBeanNamesForAnnotation"
+    );
+
+    private static final List<String> CACHED_NEGATIVE_LOOKUPS = Arrays.asList(
+        "containsBean",
+        "containsBeanDefinition",
+        "containsLocalBean"
+    );
+
+    private static final List<String> INVALIDATING_PREFIXES = Arrays.asList(
+        "register",
+        "destroy",
+        "removeBeanDefinition",
+        "refresh"
+    );
+
+    private final ConfigurableApplicationContext context;
+    private final Map<List<Object>, Object> cache = new ConcurrentHashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    private volatile ConfigurableListableBeanFactory beanFactory;
+
+    ParentContextIndex(ConfigurableApplicationContext parent) {
+        this.context = proxy(parent, ConfigurableApplicationContext.class);
+    }
+
+    /**
+     * @return the caching view of the parent context
+     */
+    ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Clears all the cached lookups.
+     */
+    void invalidate() {
+        if (!cache.isEmpty()) {
+            LOGGER.debug("Invalidating {} cached parent context lookups", cache.size());
+            cache.clear();
+        }
+    }
+
+    long getLookupCount() {
+        return lookups.get();
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    private <T> T proxy(T target, Class<T> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), classLoader);
+        return type.cast(Proxy.newProxyInstance(classLoader, interfaces, new CachingInvocationHandler(target)));
+    }
+
+    private ConfigurableListableBeanFactory getBeanFactory(ConfigurableListableBeanFactory target) {
+        ConfigurableListableBeanFactory result = beanFactory;
+        if (result == null) {
+            result = proxy(target, ConfigurableListableBeanFactory.class);
+            beanFactory = result;
+        }
+        return result;
+    }
+
+    private class CachingInvocationHandler implements InvocationHandler {
+
+        private final Object target;
+
+        CachingInvocationHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (method.getDeclaringClass() == Object.class) {
+                switch (name) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return invokeTarget(method, args);
+                }
+            }
+
+            if ("getBeanFactory".equals(name) && (args == null || args.length == 0)) {
+                return ParentContextIndex.this.getBeanFactory((ConfigurableListableBeanFactory) invokeTarget(method, args));
+            }
+
+            if (CACHED_NAME_LOOKUPS.contains(name)) {
+                return ((String[]) cached(method, args, false)).clone();
+            }
+
+            if (CACHED_NEGATIVE_LOOKUPS.contains(name)) {
+                return cached(method, args, true);
+            }
+
+            if ("getBean".equals(name) && args != null && args.length > 0) {
+                return getBean(method, args);
+            }
+
+            if (INVALIDATING_PREFIXES.stream().anyMatch(name::startsWith)) {
+                try {
+                    return invokeTarget(method, args);
+                } finally {
+                    invalidate();
+                }
+            }
+
+            return invokeTarget(method, args);
+        }
+
+        private Object cached(Method method, Object[] args, boolean onlyNegative) throws Throwable {
+            lookups.incrementAndGet();
+
+            List<Object> key = key(method, args);
+            Object result = cache.get(key);
+            if (result != null) {
+                hits.incrementAndGet();
+                return result;
+            }
+
+            result = invokeTarget(method, args);
+            if (!onlyNegative || Boolean.FALSE.equals(result)) {
+                cache.put(key, result);
+            }
+            return result;
+        }
+
+        private Object getBean(Method method, Object[] args) throws Throwable {
+            lookups.incrementAndGet();
+
+            List<Object> key = key(method, args);
+            Object miss = cache.get(key);
+            if (miss instanceof NoSuchBeanDefinitionException) {
+                hits.incrementAndGet();
+                throw (NoSuchBeanDefinitionException) miss;
+            }
+
+            try {
+                return invokeTarget(method, args);
+            } catch (NoUniqueBeanDefinitionException e) {
+                throw e;
+            } catch (NoSuchBeanDefinitionException e) {
+                if (args.length == 1) {
+                    cache.put(key, e);
+                }
+                throw e;
+            }
+        }
+
+        private List<Object> key(Method method, Object[] args) {
+            return Arrays.asList(
+                method.getName(),
+                Arrays.asList(method.getParameterTypes()),
+                args == null ? Collections.emptyList() : Arrays.asList(args)
+            );
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+}
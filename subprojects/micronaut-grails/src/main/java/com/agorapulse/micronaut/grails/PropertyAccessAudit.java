@@ -0,0 +1,188 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the properties read by {@link GrailsPropertyTranslatingEnvironment} together with the name of
+ * the property which actually satisfied the lookup and the number of lookups.
+ * <p>
+ * The report is written as JSON and it can be loaded at the next start to resolve the translated properties
+ * directly without trying all the alternative names.
+ */
+class PropertyAccessAudit {
+
+    /**
+     * The file to write the report into when the Micronaut context is stopped.
+     */
+    static final String FILE_PROPERTY = "micronaut.grails.property-audit.file";
+
+    /**
+     * Enables loading the translated properties from the report written previously.
+     */
+    static final String REPLAY_PROPERTY = "micronaut.grails.property-audit.replay";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertyAccessAudit.class);
+
+    private static final String PROPERTIES = "properties";
+    private static final String NAME = "name";
+    private static final String RESOLVED_NAME = "resolvedName";
+    private static final String COUNT = "count";
+
+    private static class Access {
+        private volatile String resolvedName;
+        private final AtomicLong count = new AtomicLong();
+    }
+
+    private final File file;
+    private final ConcurrentMap<String, Access> accesses = new ConcurrentHashMap<>();
+
+    /**
+     * @param file the file to write the report into or <code>null</code> to keep the records only in memory
+     */
+    PropertyAccessAudit(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @param name the name of the property being read
+     * @param resolvedName the name of the property which satisfied the lookup or <code>null</code> if there is no such property
+     */
+    void record(String name, String resolvedName) {
+        if (name == null) {
+            return;
+        }
+        Access access = accesses.computeIfAbsent(name, n -> new Access());
+        access.resolvedName = resolvedName;
+        access.count.incrementAndGet();
+    }
+
+    /**
+     * Writes the report into the configured file.
+     */
+    void write() {
+        if (file == null) {
+            return;
+        }
+
+        Map<String, Access> sorted = new TreeMap<>(accesses);
+        List<Map<String, Object>> properties = new ArrayList<>(sorted.size());
+        int translated = 0;
+
+        for (Map.Entry<String, Access> entry : sorted.entrySet()) {
+            Map<String, Object> property = new LinkedHashMap<>();
+            property.put(NAME, entry.getKey());
+            property.put(RESOLVED_NAME, entry.getValue().resolvedName);
+            property.put(COUNT, entry.getValue().count.get());
+            properties.add(property);
+
+            if (entry.getValue().resolvedName != null && !entry.getKey().equals(entry.getValue().resolvedName)) {
+                translated++;
+            }
+        }
+
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, Collections.singletonMap(PROPERTIES, properties));
+            LOGGER.info("Property audit of {} properties ({} translated) written to {}", properties.size(), translated, file.getAbsolutePath());
+        } catch (IOException e) {
+            LOGGER.error("Failed to write property audit to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return the properties which have been resolved using their alternative names mapped to the alternative names
+     */
+    Map<String, String> getTranslations() {
+        Map<String, String> translations = new TreeMap<>();
+        accesses.forEach((name, access) -> {
+            String resolvedName = access.resolvedName;
+            if (resolvedName != null && !name.equals(resolvedName)) {
+                translations.put(name, resolvedName);
+            }
+        });
+        return translations;
+    }
+
+    /**
+     * @param name the name of the property
+     * @return the number of lookups of the property recorded so far
+     */
+    long getCount(String name) {
+        Access access = accesses.get(name);
+        return access == null ? 0 : access.count.get();
+    }
+
+    /**
+     * Reads the properties which have been resolved using their alternative names from the report.
+     *
+     * @param file the report file
+     * @return the map of property names to the alternative names which satisfied the lookup
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> readTranslations(File file) {
+        if (!file.exists()) {
+            LOGGER.info("Property audit {} does not exist yet, all the translations will be resolved on demand", file.getAbsolutePath());
+            return Collections.emptyMap();
+        }
+
+        try {
+            Map<String, Object> report = new ObjectMapper().readValue(file, Map.class);
+            Object properties = report == null ? null : report.get(PROPERTIES);
+            if (!(properties instanceof List)) {
+                return Collections.emptyMap();
+            }
+
+            Map<String, String> translations = new ConcurrentHashMap<>();
+            for (Object item : (List<Object>) properties) {
+                if (item instanceof Map) {
+                    Object name = ((Map<String, Object>) item).get(NAME);
+                    Object resolvedName = ((Map<String, Object>) item).get(RESOLVED_NAME);
+                    if (name != null && resolvedName != null && !name.equals(resolvedName)) {
+                        translations.put(name.toString(), resolvedName.toString());
+                    }
+                }
+            }
+
+            LOGGER.info("Loaded {} translated properties from property audit {}", translations.size(), file.getAbsolutePath());
+            return translations;
+        } catch (IOException e) {
+            LOGGER.error("Failed to read property audit from " + file.getAbsolutePath(), e);
+            return Collections.emptyMap();
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.reflect.ClassUtils;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Infrastructure beans which can be created once by the Micronaut context and shared with the Grails' Spring
+ * application context.
+ * <p>
+ * The Micronaut context creates the shared instances because it is started before the Spring application context.
+ * The instances are registered into the Spring application context using the names of the beans created by
+ * the Spring Boot auto-configuration which then backs off. The context which shuts down the shared executors
+ * is selected by {@link Owner}.
+ *
+ * @see MicronautGrailsAutoConfiguration#getSharedInfrastructure()
+ */
+public enum SharedInfrastructure {
+
+    /**
+     * Jackson <code>ObjectMapper</code> shared as <code>jacksonObjectMapper</code> bean.
+     */
+    OBJECT_MAPPER("jacksonObjectMapper") {
+        @Override
+        Optional<Object> find(ApplicationContext micronautContext) {
+            return ClassUtils.forName(OBJECT_MAPPER_CLASS, SharedInfrastructure.class.getClassLoader())
+                .flatMap(type -> micronautContext.findBean(type).map(Object.class::cast));
+        }
+    },
+
+    /**
+     * Micronaut <code>io</code> executor shared as <code>applicationTaskExecutor</code> and <code>taskExecutor</code> beans.
+     */
+    TASK_EXECUTOR("applicationTaskExecutor", "taskExecutor") {
+        @Override
+        Optional<Object> find(ApplicationContext micronautContext) {
+            return findExecutor(micronautContext, IO_EXECUTOR).map(ConcurrentTaskExecutor::new);
+        }
+
+        @Override
+        void dispose(Object instance) {
+            shutdown(instance);
+        }
+    },
+
+    /**
+     * Micronaut <code>scheduled</code> executor shared as <code>taskScheduler</code> bean.
+     */
+    TASK_SCHEDULER("taskScheduler") {
+        @Override
+        Optional<Object> find(ApplicationContext micronautContext) {
+            return findExecutor(micronautContext, SCHEDULED_EXECUTOR)
+                .filter(ScheduledExecutorService.class::isInstance)
+                .map(executor -> new ConcurrentTaskScheduler((ScheduledExecutorService) executor));
+        }
+
+        @Override
+        void dispose(Object instance) {
+            shutdown(instance);
+        }
+    };
+
+    /**
+     * The context which manages the lifecycle of the shared instances.
+     */
+    public enum Owner {
+
+        /**
+         * The shared executors are shut down with the Micronaut context which is closed after the Spring application context.
+         */
+        MICRONAUT,
+
+        /**
+         * The shared executors are shut down with the Spring application context so no task is executed
+         * once the Grails application is stopped.
+         */
+        SPRING
+
+    }
+
+    private static final String OBJECT_MAPPER_CLASS = "com.fasterxml.jackson.databind.ObjectMapper";
+    private static final String IO_EXECUTOR = "io";
+    private static final String SCHEDULED_EXECUTOR = "scheduled";
+
+    private final String[] beanNames;
+
+    SharedInfrastructure(String... beanNames) {
+        this.beanNames = beanNames;
+    }
+
+    /**
+     * @return the name of the Spring bean followed by its aliases
+     */
+    public String[] getBeanNames() {
+        return beanNames.clone();
+    }
+
+    /**
+     * Finds the instance to be shared in the Micronaut context.
+     * @param micronautContext the Micronaut context
+     * @return the instance to be registered into the Spring application context
+     */
+    abstract Optional<Object> find(ApplicationContext micronautContext);
+
+    /**
+     * Releases the shared instance when the Spring application context owning it is closed.
+     * @param instance the instance returned from {@link #find(ApplicationContext)}
+     */
+    void dispose(Object instance) {
+        // nothing to release by default
+    }
+
+    private static void shutdown(Object instance) {
+        if (instance instanceof ConcurrentTaskExecutor) {
+            Executor executor = ((ConcurrentTaskExecutor) instance).getConcurrentExecutor();
+            if (executor instanceof ExecutorService) {
+                ((ExecutorService) executor).shutdown();
+            }
+        }
+    }
+
+    private static Optional<ExecutorService> findExecutor(ApplicationContext micronautContext, String name) {
+        return micronautContext.findBean(ExecutorService.class, Qualifiers.byName(name));
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.BeanRegistration;
+import io.micronaut.context.DefaultBeanContext;
+import io.micronaut.inject.DisposableBeanDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Destroys particular singleton registrations.
+ * <p>
+ * {@link BeanContext#destroyBean(Class)} looks the bean up again by its type without any qualifier so it cannot
+ * destroy qualified beans or one of several beans of the same type.
+ * <p>
+ * The registrations are removed from the private singleton map of {@link DefaultBeanContext} which only exists
+ * in Micronaut {@value #SUPPORTED_MAJOR_VERSIONS}. For any other version nothing is destroyed and the callers
+ * leave the beans to the context.
+ */
+final class SingletonRegistrations {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingletonRegistrations.class);
+    private static final String SINGLETONS_FIELD = "singletonObjects";
+    private static final String SUPPORTED_MAJOR_VERSIONS = "1.x and 2.x";
+    private static final String MICRONAUT_VERSION = DefaultBeanContext.class.getPackage().getImplementationVersion();
+
+    private SingletonRegistrations() { }
+
+    /**
+     * Removes the registration from the context and runs the pre-destroy hooks of the bean.
+     *
+     * @param context the context holding the registration
+     * @param registration the registration to be destroyed
+     * @return <code>true</code> if the registration has been removed from the context
+     */
+    static boolean destroy(BeanContext context, BeanRegistration<?> registration) {
+        return destroy(context, registration, MICRONAUT_VERSION);
+    }
+
+    /**
+     * Removes the registration from the context and runs the pre-destroy hooks of the bean if the version of Micronaut
+     * is supported.
+     *
+     * @param context the context holding the registration
+     * @param registration the registration to be destroyed
+     * @param micronautVersion the version of Micronaut or <code>null</code> if unknown
+     * @return <code>true</code> if the registration has been removed from the context
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static boolean destroy(BeanContext context, BeanRegistration<?> registration, String micronautVersion) {
+        if (!isSupported(micronautVersion)) {
+            LOGGER.debug("Singletons cannot be destroyed individually in Micronaut " + micronautVersion + ", only " + SUPPORTED_MAJOR_VERSIONS + " are supported");
+            return false;
+        }
+
+        Map<Object, BeanRegistration<?>> singletons = findSingletons(context);
+        if (singletons == null) {
+            return false;
+        }
+
+        boolean removed = false;
+        synchronized (singletons) {
+            for (Iterator<BeanRegistration<?>> it = singletons.values().iterator(); it.hasNext();) {
+                BeanRegistration<?> candidate = it.next();
+                if (candidate == registration || candidate.getBean() == registration.getBean()) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+        }
+
+        if (removed && registration.getBeanDefinition() instanceof DisposableBeanDefinition) {
+            ((DisposableBeanDefinition) registration.getBeanDefinition()).dispose(context, registration.getBean());
+        }
+
+        return removed;
+    }
+
+    /**
+     * @param micronautVersion the version of Micronaut or <code>null</code> if unknown
+     * @return <code>true</code> if the layout of the singletons in {@link DefaultBeanContext} is known for the version,
+     * unknown versions are checked by the type of the field only
+     */
+    static boolean isSupported(String micronautVersion) {
+        return micronautVersion == null || micronautVersion.startsWith("1.") || micronautVersion.startsWith("2.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, BeanRegistration<?>> findSingletons(BeanContext context) {
+        if (!(context instanceof DefaultBeanContext)) {
+            return null;
+        }
+        try {
+            Field field = DefaultBeanContext.class.getDeclaredField(SINGLETONS_FIELD);
+            if (!Map.class.isAssignableFrom(field.getType())) {
+                LOGGER.warn("Singletons cannot be destroyed individually in this version of Micronaut, " + SINGLETONS_FIELD + " is " + field.getType());
+                return null;
+            }
+            field.setAccessible(true);
+            return (Map<Object, BeanRegistration<?>>) field.get(context);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            LOGGER.warn("Singletons cannot be destroyed individually in this version of Micronaut", e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors backed by virtual threads if the current JVM supports them (JDK 21 and newer).
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_EXECUTOR = findFactoryMethod();
+
+    private VirtualThreads() { }
+
+    /**
+     * @return <code>true</code> if the current JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Creates new executor which starts new virtual thread for each task.
+     *
+     * @return new executor which starts new virtual thread for each task
+     * @throws UnsupportedOperationException if the current JVM does not support virtual threads
+     */
+    public static ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, current version is " + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static Method findFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
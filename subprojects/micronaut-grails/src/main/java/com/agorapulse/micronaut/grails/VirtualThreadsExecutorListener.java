@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.scheduling.TaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Replaces the blocking executors of the Micronaut context with the ones backed by virtual threads
+ * if {@link MicronautGrailsAutoConfiguration#isVirtualThreads()} is enabled.
+ */
+@Singleton
+@Requires(beans = MicronautGrailsAutoConfiguration.class)
+public class VirtualThreadsExecutorListener implements BeanCreatedEventListener<ExecutorService> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadsExecutorListener.class);
+
+    private static final Set<String> BLOCKING_EXECUTORS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        TaskExecutors.IO,
+        "blocking"
+    )));
+
+    private final MicronautGrailsAutoConfiguration configuration;
+
+    public VirtualThreadsExecutorListener(MicronautGrailsAutoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public ExecutorService onCreated(BeanCreatedEvent<ExecutorService> event) {
+        ExecutorService executor = event.getBean();
+
+        if (!configuration.isVirtualThreads() || executor instanceof ScheduledExecutorService) {
+            return executor;
+        }
+
+        String name = event.getBeanIdentifier().getName();
+        if (!BLOCKING_EXECUTORS.contains(name)) {
+            return executor;
+        }
+
+        if (!VirtualThreads.isSupported()) {
+            LOGGER.warn("Virtual threads are not supported by Java " + System.getProperty("java.version") + ", executor '" + name + "' keeps using platform threads");
+            return executor;
+        }
+
+        executor.shutdown();
+        LOGGER.info("Executor '" + name + "' is using virtual threads");
+        return VirtualThreads.newExecutor();
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the {@link WarmUpTask} beans and touches every bean imported by {@link MicronautBeanImporter} in parallel
+ * within the given time budget.
+ */
+class WarmUp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUp.class);
+
+    private final ApplicationContext applicationContext;
+    private final Duration timeout;
+
+    WarmUp(ApplicationContext applicationContext, Duration timeout) {
+        this.applicationContext = applicationContext;
+        this.timeout = timeout;
+    }
+
+    void run() {
+        long started = System.nanoTime();
+        long deadline = started + timeout.toNanos();
+
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+
+        BeanFactoryUtils.beansOfTypeIncludingAncestors(applicationContext, WarmUpTask.class).forEach((name, task) ->
+            tasks.put(name, () -> {
+                task.warmUp(applicationContext);
+                return null;
+            })
+        );
+
+        for (MicronautBeanImporter importer : applicationContext.getBeansOfType(MicronautBeanImporter.class, false, false).values()) {
+            for (String name : importer.getMicronautBeanQualifiers().keySet()) {
+                // the importers are not processed in every compatibility mode
+                if (applicationContext.containsBean(name)) {
+                    tasks.putIfAbsent(name, () -> applicationContext.getBean(name));
+                }
+            }
+        }
+
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "micronaut-grails-warm-up-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int failed = 0;
+        int timedOut = 0;
+
+        try {
+            List<String> names = new ArrayList<>(tasks.keySet());
+            List<Future<?>> futures = new ArrayList<>(names.size());
+            for (String name : names) {
+                futures.add(executor.submit(tasks.get(name)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    timedOut++;
+                    futures.get(i).cancel(true);
+                } catch (ExecutionException e) {
+                    failed++;
+                    LOGGER.warn("Warm-up of " + names.get(i) + " failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LOGGER.info("Warmed up " + (tasks.size() - failed - timedOut) + " of " + tasks.size() + " beans and tasks in "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms"
+            + (timedOut > 0 ? " (" + timedOut + " exceeded the warm-up timeout " + timeout + ")" : ""));
+    }
+
+}
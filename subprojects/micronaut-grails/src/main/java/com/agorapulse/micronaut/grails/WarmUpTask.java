@@ -0,0 +1,41 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails;
+
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Task executed during the warm-up phase of {@link MicronautGrailsApp} before the application reports it is ready.
+ * <p>
+ * The tasks are looked up as beans of the Spring application context or any of its parents including
+ * the Micronaut context.
+ *
+ * @see MicronautGrailsAutoConfiguration#getWarmUpTimeout()
+ */
+@FunctionalInterface
+public interface WarmUpTask {
+
+    /**
+     * Exercises the code paths which would be otherwise slow for the first requests.
+     *
+     * @param applicationContext the Grails' Spring application context
+     * @throws Exception if the warm-up fails, the failure is logged but it does not prevent the application from starting
+     */
+    void warmUp(ApplicationContext applicationContext) throws Exception;
+
+}
@@ -0,0 +1,156 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.core.convert.ConversionService
+import io.micronaut.inject.BeanDefinitionReference
+import io.micronaut.inject.BeanType
+import io.micronaut.spring.context.factory.MicronautBeanFactoryConfiguration
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import javax.inject.Singleton
+
+/**
+ * Tests for bean exposure.
+ */
+@CompileDynamic
+class BeanExposureSpec extends Specification {
+
+    @AutoCleanup ApplicationContext context
+
+    void 'everything is exposed by default'() {
+        expect:
+            BeanExposure.all().isExposed(bean(String))
+            BeanExposure.builder().build().isExposed(bean(String))
+    }
+
+    void 'beans are filtered by includes and excludes'() {
+        when:
+            BeanExposure exposure = BeanExposure.builder()
+                .includePackage('java.util')
+                .includeType(CharSequence)
+                .includeStereotype(Singleton)
+                .excludePackage('java.util.concurrent')
+                .excludeType(StringBuilder)
+                .build()
+        then:
+            exposure.isExposed(bean(ArrayList))
+            exposure.isExposed(bean(String))
+            exposure.isExposed(bean(Integer, Singleton.name))
+            !exposure.isExposed(bean(Integer))
+            !exposure.isExposed(bean(StringBuilder))
+            !exposure.isExposed(bean(java.util.concurrent.ConcurrentHashMap))
+    }
+
+    void 'missing classes are not loaded'() {
+        given:
+            BeanDefinitionReference<?> reference = Stub(BeanDefinitionReference) {
+                getName() >> 'com.example.missing.MissingBean'
+                isPresent() >> false
+                getBeanType() >> { throw new NoClassDefFoundError('com/example/missing/MissingBean') }
+            }
+        expect:
+            !BeanExposure.builder().includeType(CharSequence).build().isExposed(reference)
+            BeanExposure.builder().excludeType(CharSequence).build().isExposed(reference)
+            BeanExposure.builder().includePackage('com.example').build().isExposed(reference)
+    }
+
+    void 'hidden beans are excluded before the context is started'() {
+        given:
+            MicronautGrailsAutoConfiguration configuration = new ExposureConfiguration()
+            MicronautGrailsApp.MicronautGrailsAppContext appContext = new MicronautGrailsApp.MicronautGrailsAppContext(
+                new MicronautGrailsApp.MicronautGrailsAppContextConfiguration(BeanExposureSpec.classLoader, configuration, null, null)
+            )
+            context = appContext
+        when:
+            appContext.excludeBeans([ConversionService])
+            appContext.registerSingleton(MicronautGrailsAutoConfiguration, configuration)
+            appContext.start()
+            List<Class<?>> excludes = appContext.getBean(MicronautBeanFactoryConfiguration).beanExcludes
+        then:
+            appContext.exposedBeanCount > 0
+            ConversionService in excludes
+            excludes.any { it.name.startsWith('com.agorapulse.micronaut.amazon.awssdk.sqs.') }
+            !excludes.any { it.name.startsWith('com.agorapulse.micronaut.amazon.awssdk.sns.') }
+            !excludes.any { it.name.startsWith(MicronautGrailsApp.package.name + '.') }
+    }
+
+    void 'hidden beans extended by exposed beans are not excluded'() {
+        given:
+            MicronautGrailsAutoConfiguration configuration = new SubclassExposureConfiguration()
+            MicronautGrailsApp.MicronautGrailsAppContext appContext = new MicronautGrailsApp.MicronautGrailsAppContext(
+                new MicronautGrailsApp.MicronautGrailsAppContextConfiguration(BeanExposureSpec.classLoader, configuration, null, null)
+            )
+            context = appContext
+        when:
+            appContext.registerSingleton(MicronautGrailsAutoConfiguration, configuration)
+            appContext.start()
+            List<Class<?>> excludes = appContext.getBean(MicronautBeanFactoryConfiguration).beanExcludes
+        then:
+            HiddenExposureBean in excludes
+            !(ExtendedExposureBean in excludes)
+            !(ExposedExposureBean in excludes)
+    }
+
+    private BeanType<?> bean(Class<?> type, String stereotype = null) {
+        return Stub(BeanType) {
+            getName() >> type.name
+            getBeanType() >> type
+            hasStereotype(_ as String) >> { String name -> name == stereotype }
+        }
+    }
+
+}
+
+@CompileDynamic
+class ExposureConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    BeanExposure getBeanExposure() {
+        return BeanExposure.builder()
+            .includePackage(MicronautGrailsApp.package.name)
+            .includePackage('com.agorapulse.micronaut.amazon.awssdk.sns')
+            .build()
+    }
+
+}
+
+@CompileDynamic
+class SubclassExposureConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    BeanExposure getBeanExposure() {
+        return { BeanType<?> bean -> bean.name != HiddenExposureBean.name && bean.name != ExtendedExposureBean.name } as BeanExposure
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class HiddenExposureBean { }
+
+@Singleton
+@CompileDynamic
+class ExtendedExposureBean { }
+
+@Singleton
+@CompileDynamic
+class ExposedExposureBean extends ExtendedExposureBean { }
@@ -0,0 +1,186 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.runtime.http.scope.RequestScope
+import org.springframework.beans.factory.ObjectFactory
+import org.springframework.beans.factory.config.BeanDefinition
+import org.springframework.beans.factory.config.Scope
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import javax.annotation.PreDestroy
+
+/**
+ * Tests for request scoped beans imported from Micronaut.
+ */
+@CompileDynamic
+class GrailsMicronautRequestScopedBeanFactorySpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.run()
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    TestRequestScope requestScope = new TestRequestScope()
+
+    void 'bean is created once per request and disposed at the end of the request'() {
+        given:
+            start(true)
+            RequestCounter counter = springContext.getBean('requestCounter', RequestCounter)
+        when:
+            requestScope.begin()
+            RequestCounter first = counter.self()
+            counter.increment()
+            counter.increment()
+        then:
+            counter.getCount() == 2
+            counter.self().is(first)
+            !first.disposed
+        when:
+            requestScope.end()
+        then:
+            first.disposed
+        when:
+            requestScope.begin()
+            RequestCounter second = counter.self()
+        then:
+            !second.is(first)
+            counter.getCount() == 0
+        cleanup:
+            requestScope.end()
+    }
+
+    void 'requests do not share the bean'() {
+        given:
+            start(true)
+            RequestCounter counter = springContext.getBean('requestCounter', RequestCounter)
+        when:
+            requestScope.begin()
+            RequestCounter first = counter.self()
+            counter.increment()
+            requestScope.end()
+
+            requestScope.begin()
+            RequestCounter second = counter.self()
+            requestScope.end()
+        then:
+            !first.is(second)
+            first.disposed
+            second.disposed
+            first.getCount() == 1
+            second.getCount() == 0
+    }
+
+    void 'bean is imported without the request scope if the scope is not registered'() {
+        when:
+            start(false)
+            BeanDefinition definition = springContext.getBeanDefinition('requestCounter')
+        then:
+            definition.beanClassName == GrailsMicronautBeanFactory.name
+            definition.scope != 'request'
+            !springContext.containsBeanDefinition('scopedTarget.requestCounter')
+    }
+
+    private void start(boolean withRequestScope) {
+        if (withRequestScope) {
+            springContext.beanFactory.registerScope('request', requestScope)
+        }
+        DefaultGrailsMicronautBeanProcessor processor = new DefaultGrailsMicronautBeanProcessor([
+            requestCounter: new TypeAndQualifier<RequestCounter>(RequestCounter, null),
+        ])
+        processor.applicationContext = springContext
+        springContext.beanFactory.registerSingleton('micronautContextHolder', new MicronautContextHolder(micronautContext))
+        springContext.addBeanFactoryPostProcessor(processor)
+        springContext.refresh()
+    }
+
+}
+
+@RequestScope
+@CompileDynamic
+class RequestCounter {
+
+    int count
+    boolean disposed
+
+    int increment() {
+        return ++count
+    }
+
+    RequestCounter self() {
+        return this
+    }
+
+    @PreDestroy
+    void dispose() {
+        disposed = true
+    }
+
+}
+
+@CompileDynamic
+class TestRequestScope implements Scope {
+
+    private Map<String, Object> beans
+    private List<Runnable> callbacks
+
+    void begin() {
+        beans = [:]
+        callbacks = []
+    }
+
+    void end() {
+        callbacks?.each { it.run() }
+        beans = null
+        callbacks = null
+    }
+
+    @Override
+    Object get(String name, ObjectFactory<?> objectFactory) {
+        if (beans == null) {
+            throw new IllegalStateException('No request is active')
+        }
+        if (!beans.containsKey(name)) {
+            beans[name] = objectFactory.object
+        }
+        return beans[name]
+    }
+
+    @Override
+    Object remove(String name) {
+        return beans?.remove(name)
+    }
+
+    @Override
+    void registerDestructionCallback(String name, Runnable callback) {
+        callbacks << callback
+    }
+
+    @Override
+    Object resolveContextualObject(String key) {
+        return null
+    }
+
+    @Override
+    String getConversationId() {
+        return 'test-request'
+    }
+
+}
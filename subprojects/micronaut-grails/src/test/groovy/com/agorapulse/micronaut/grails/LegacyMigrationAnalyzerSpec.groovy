@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import groovy.transform.CompileDynamic
+import groovy.transform.CompileStatic
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.context.annotation.Import
+import org.springframework.core.env.MapPropertySource
+import org.springframework.core.env.StandardEnvironment
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.TestPropertySource
+import spock.lang.Specification
+
+/**
+ * Tests for the legacy mode migration analyzer.
+ */
+@CompileDynamic
+@ContextConfiguration(classes = [LegacyMigrationAnalyzerConfig])
+@TestPropertySource(
+    locations = 'classpath:com/agorapulse/micronaut/grails/GrailsMicronautBeanProcessorSpec.properties',
+    properties = 'micronaut.grails.migration-report.file=build/reports/micronaut-grails/migration-report.json'
+)
+class LegacyMigrationAnalyzerSpec extends Specification {
+
+    @Autowired
+    LegacyMigrationAnalyzer analyzer
+
+    void 'imported beans are analyzed'() {
+        when:
+            Map<String, Object> report = analyzer.analyze()
+            Map<String, Object> widget = report.imports.find { it.name == 'widget' }
+        then:
+            report.recommendedMode == CompatibilityMode.STRICT.name()
+
+            widget
+            widget.type == Widget.name
+            widget.requiredMode == CompatibilityMode.STRICT.name()
+            widget.dependents == [[bean: 'widgetConsumer', injection: 'annotated']]
+    }
+
+    void 'measuring translated properties does not inflate the recorded counts'() {
+        given:
+            StandardEnvironment springEnvironment = new StandardEnvironment()
+            springEnvironment.propertySources.addFirst(new MapPropertySource('test', [
+                'grails.redis.host': 'localhost',
+                (LegacyMigrationAnalyzer.REPORT_FILE_PROPERTY): 'build/reports/micronaut-grails/unused.json',
+            ]))
+            GrailsPropertyTranslatingEnvironment environment = new GrailsPropertyTranslatingEnvironment(
+                springEnvironment,
+                PropertyTranslatingCustomizer.builder().replacePrefix('redis', 'grails.redis').build(),
+                Collections.emptyList()
+            )
+        when:
+            environment.getProperty('redis.host', String)
+            10.times { environment.getPropertyWithoutAudit('redis.host') }
+        then:
+            environment.getPropertyWithoutAudit('redis.host') == Optional.of('localhost')
+            environment.audit.getTranslations() == ['redis.host': 'grails.redis.host']
+            environment.audit.getCount('redis.host') == 1
+    }
+
+    void 'report is written on refresh'() {
+        when:
+            File file = new File('build/reports/micronaut-grails/migration-report.json')
+        then:
+            file.exists()
+            new ObjectMapper().readValue(file, Map).imports*.name.contains('widget')
+    }
+
+}
+
+@CompileStatic
+class WidgetConsumer {
+
+    @Autowired Widget widget
+
+}
+
+@CompileStatic
+@Configuration
+@Import(GrailsLegacyConfig)
+class LegacyMigrationAnalyzerConfig {
+
+    @Bean
+    LegacyMigrationAnalyzer legacyMigrationAnalyzer() {
+        return new LegacyMigrationAnalyzer()
+    }
+
+    @Bean
+    WidgetConsumer widgetConsumer() {
+        return new WidgetConsumer()
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Prototype
+import io.micronaut.context.exceptions.NoSuchBeanException
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.runtime.context.scope.ThreadLocal
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import javax.inject.Named
+import javax.inject.Singleton
+
+/**
+ * Tests for bean handles.
+ */
+@CompileDynamic
+class MicronautBeanHandleSpec extends Specification {
+
+    @AutoCleanup ApplicationContext context = ApplicationContext.run()
+
+    MicronautContextHolder holder = new MicronautContextHolder(context)
+
+    void 'singleton handle returns the same instance'() {
+        when:
+            MicronautBeanHandle<HandledSingleton> handle = holder.handle(HandledSingleton)
+        then:
+            handle.singleton
+            handle.definition.beanType == HandledSingleton
+            handle.get().is(handle.get())
+            handle.get().is(context.getBean(HandledSingleton))
+    }
+
+    void 'prototype handle returns new instances'() {
+        when:
+            MicronautBeanHandle<HandledPrototype> handle = holder.handle(HandledPrototype)
+        then:
+            !handle.singleton
+            !handle.get().is(handle.get())
+    }
+
+    void 'prototype handle creates the beans from the application context'() {
+        given:
+            ApplicationContext appContext = new MicronautGrailsApp.MicronautGrailsAppContext(
+                new MicronautGrailsApp.MicronautGrailsAppContextConfiguration(
+                    MicronautBeanHandleSpec.classLoader,
+                    new MicronautGrailsAutoConfiguration(),
+                    null,
+                    null
+                )
+            ).start()
+        when:
+            MicronautBeanHandle<HandledPrototype> handle = new MicronautContextHolder(appContext).handle(HandledPrototype)
+            HandledPrototype first = handle.get()
+            HandledPrototype second = handle.get()
+        then:
+            first
+            second
+            !first.is(second)
+            first.singleton.is(appContext.getBean(HandledSingleton))
+        cleanup:
+            appContext.close()
+    }
+
+    void 'scoped handle delegates to the scope'() {
+        when:
+            MicronautBeanHandle<HandledThreadLocal> handle = holder.handle(HandledThreadLocal)
+            HandledThreadLocal current = handle.get()
+            HandledThreadLocal other = null
+            Thread thread = Thread.start { other = handle.get() }
+            thread.join()
+        then:
+            !handle.singleton
+            current.is(handle.get())
+            other
+            !other.is(current)
+    }
+
+    void 'cached singletons are dropped when the handles are invalidated'() {
+        given:
+            MicronautBeanHandle<HandledSingleton> handle = holder.handle(HandledSingleton)
+            HandledSingleton original = handle.get()
+            SingletonRegistrations.destroy(context, context.getActiveBeanRegistrations(HandledSingleton).first())
+        when:
+            holder.invalidateHandles()
+        then:
+            !handle.get().is(original)
+            handle.get().is(context.getBean(HandledSingleton))
+    }
+
+    void 'qualified handle'() {
+        when:
+            MicronautBeanHandle<NamedHandledSingleton> handle = holder.handle(NamedHandledSingleton, Qualifiers.byName('other'))
+        then:
+            handle.get().is(context.getBean(NamedHandledSingleton, Qualifiers.byName('other')))
+    }
+
+    void 'missing beans fail fast'() {
+        when:
+            holder.handle(MicronautBeanHandleSpec)
+        then:
+            thrown(NoSuchBeanException)
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class HandledSingleton { }
+
+@Singleton
+@Named('other')
+@CompileDynamic
+class NamedHandledSingleton { }
+
+@Prototype
+@CompileDynamic
+class HandledPrototype {
+
+    final HandledSingleton singleton
+
+    HandledPrototype(HandledSingleton singleton) {
+        this.singleton = singleton
+    }
+
+}
+
+@ThreadLocal
+@CompileDynamic
+class HandledThreadLocal { }
@@ -0,0 +1,236 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Factory
+import io.micronaut.inject.qualifiers.Qualifiers
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import javax.inject.Named
+import javax.inject.Singleton
+import java.util.function.Supplier
+
+/**
+ * Tests for development reloader.
+ */
+@CompileDynamic
+class MicronautDevelopmentReloaderSpec extends Specification {
+
+    private static final String GREETER_PACKAGE = 'com/agorapulse/micronaut/grails/reloaded/'
+
+    @TempDir File classes
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.run()
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    @Unroll
+    void 'changed #path is mapped to #className'() {
+        given:
+            MicronautDevelopmentReloader reloader = newReloader()
+        expect:
+            reloader.toBeanClassName(new File(classes, path)) == className
+        where:
+            path                                     | className
+            'com/example/Foo.class'                  | 'com.example.Foo'
+            'com/example/$FooDefinition.class'       | 'com.example.Foo'
+            'com/example/$FooDefinitionClass.class'  | 'com.example.Foo'
+            'com/example/$Foo$BarDefinition.class'   | 'com.example.Foo$Bar'
+            'com/example/$FooInterceptor.class'      | null
+            'com/example/foo.properties'             | null
+    }
+
+    void 'nothing is reloaded for unknown classes'() {
+        given:
+            springContext.refresh()
+            MicronautDevelopmentReloader reloader = newReloader()
+        expect:
+            reloader.reload('com.example.Foo') == 0
+    }
+
+    void 'changed singletons are destroyed'() {
+        given:
+            springContext.refresh()
+            MicronautDevelopmentReloader reloader = newReloader()
+            ReloadedService service = micronautContext.getBean(ReloadedService)
+        when:
+            int reloaded = reloader.reload(ReloadedService.name)
+        then:
+            reloaded >= 1
+            !micronautContext.getBean(ReloadedService).is(service)
+    }
+
+    void 'every qualified singleton is destroyed'() {
+        given:
+            springContext.refresh()
+            MicronautDevelopmentReloader reloader = newReloader()
+            ReloadedChannel first = micronautContext.getBean(ReloadedChannel, Qualifiers.byName('first'))
+            ReloadedChannel second = micronautContext.getBean(ReloadedChannel, Qualifiers.byName('second'))
+        when:
+            int reloaded = reloader.reload(ReloadedChannel.name)
+        then:
+            reloaded == 2
+            !micronautContext.getBean(ReloadedChannel, Qualifiers.byName('first')).is(first)
+            !micronautContext.getBean(ReloadedChannel, Qualifiers.byName('second')).is(second)
+    }
+
+    void 'spring beans and handles get the new instances'() {
+        given:
+            springContext.registerBean('reloadedService', ReloadedService, { micronautContext.getBean(ReloadedService) } as Supplier<ReloadedService>)
+            springContext.registerBean('reloadedClient', ReloadedClient)
+            springContext.refresh()
+            MicronautContextHolder holder = micronautContext.getBean(MicronautContextHolder)
+            MicronautBeanHandle<ReloadedService> handle = holder.handle(ReloadedService)
+            ReloadedService service = handle.get()
+            MicronautDevelopmentReloader reloader = newReloader()
+        when:
+            reloader.reload(ReloadedService.name)
+            ReloadedService reloadedService = micronautContext.getBean(ReloadedService)
+        then:
+            !reloadedService.is(service)
+            handle.get().is(reloadedService)
+            springContext.getBean(ReloadedService).is(reloadedService)
+            springContext.getBean(ReloadedClient).service.is(reloadedService)
+    }
+
+    void 'recompiled beans are registered and run the new code'() {
+        given:
+            springContext.refresh()
+            MicronautDevelopmentReloader reloader = newReloader()
+            compileGreeter('first')
+        when:
+            reloader.onNew(new File(classes, GREETER_PACKAGE + '$DynamicGreeterDefinitionClass.class'))
+        then:
+            micronautContext.getBean(ReloadedGreeter).greet() == 'first'
+            micronautContext.getBean(ReloadedGreeterClient).greeting == 'Hello first'
+
+        when:
+            compileGreeter('second')
+            int reloaded = reloader.reload('com.agorapulse.micronaut.grails.reloaded.DynamicGreeter')
+        then:
+            reloaded == 2
+            micronautContext.getBean(ReloadedGreeter).greet() == 'second'
+            micronautContext.getBean(ReloadedGreeterClient).greeting == 'Hello second'
+    }
+
+    private MicronautDevelopmentReloader newReloader() {
+        return new MicronautDevelopmentReloader(micronautContext, springContext, classes, MicronautDevelopmentReloaderSpec.classLoader)
+    }
+
+    // compiled by the Micronaut Groovy transformation into the watched directory as the development mode does
+    private void compileGreeter(String greeting) {
+        CompilationUnit unit = new CompilationUnit(
+            new CompilerConfiguration(targetDirectory: classes),
+            null,
+            new GroovyClassLoader(MicronautDevelopmentReloaderSpec.classLoader)
+        )
+        unit.addSource('DynamicGreeter.groovy', """
+            package com.agorapulse.micronaut.grails.reloaded
+
+            import com.agorapulse.micronaut.grails.ReloadedGreeter
+
+            import javax.inject.Singleton
+
+            @Singleton
+            class DynamicGreeter implements ReloadedGreeter {
+
+                String greet() {
+                    return '$greeting'
+                }
+
+            }
+        """)
+        unit.compile()
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class ReloadedService {
+
+}
+
+interface ReloadedGreeter {
+
+    String greet()
+
+}
+
+@Singleton
+@CompileDynamic
+class ReloadedGreeterClient {
+
+    final ReloadedGreeter greeter
+
+    ReloadedGreeterClient(ReloadedGreeter greeter) {
+        this.greeter = greeter
+    }
+
+    String getGreeting() {
+        return "Hello ${greeter.greet()}"
+    }
+
+}
+
+@CompileDynamic
+class ReloadedClient {
+
+    final ReloadedService service
+
+    ReloadedClient(ReloadedService service) {
+        this.service = service
+    }
+
+}
+
+@CompileDynamic
+class ReloadedChannel {
+
+    final String name
+
+    ReloadedChannel(String name) {
+        this.name = name
+    }
+
+}
+
+@Factory
+@CompileDynamic
+class ReloadedChannelFactory {
+
+    @Singleton
+    @Named('first')
+    ReloadedChannel first() {
+        return new ReloadedChannel('first')
+    }
+
+    @Singleton
+    @Named('second')
+    ReloadedChannel second() {
+        return new ReloadedChannel('second')
+    }
+
+}
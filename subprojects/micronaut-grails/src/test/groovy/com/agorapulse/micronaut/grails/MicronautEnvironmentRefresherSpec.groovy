@@ -0,0 +1,155 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.env.PropertySource
+import io.micronaut.context.event.ApplicationEventListener
+import io.micronaut.runtime.context.scope.refresh.RefreshEvent
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.context.support.GenericApplicationContext
+import org.springframework.core.env.MapPropertySource
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import javax.inject.Singleton
+
+/**
+ * Tests for Micronaut environment refresher.
+ */
+@CompileDynamic
+class MicronautEnvironmentRefresherSpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.run()
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    Map<String, Object> properties = ['micronaut.foo': 'a', 'other.value': 'x']
+    MicronautEnvironmentRefresher refresher = new MicronautEnvironmentRefresher()
+
+    void setup() {
+        springContext.environment.propertySources.addFirst(new MapPropertySource('test', properties))
+        springContext.beanFactory.registerSingleton('micronautContextHolder', new MicronautContextHolder(micronautContext))
+        springContext.beanFactory.registerSingleton('importer', MicronautBeanImporter.create().customize(PropertyTranslatingCustomizer.grails()))
+        refresher.applicationContext = springContext
+        springContext.beanFactory.registerSingleton('refresher', refresher)
+        springContext.refresh()
+    }
+
+    void 'nothing changes without changes in the environment'() {
+        expect:
+            refresher.refresh().empty
+    }
+
+    void 'changed properties are propagated'() {
+        when:
+            properties['micronaut.foo'] = 'b'
+            properties['grails.bar'] = 'c'
+            Set<String> changed = refresher.refresh()
+        then:
+            changed == ['micronaut.foo', 'grails.bar', 'micronaut.bar', 'bar'] as Set
+            micronautContext.getProperty('micronaut.foo', String).orElse(null) == 'b'
+            micronautContext.getProperty('micronaut.bar', String).orElse(null) == 'c'
+            micronautContext.getProperty('other.value', String).orElse(null) == null
+
+        when:
+            properties.remove('grails.bar')
+        then:
+            refresher.refresh() == ['grails.bar', 'micronaut.bar', 'bar'] as Set
+            !micronautContext.getProperty('micronaut.bar', String).present
+    }
+
+    void 'only the properties changed in the Spring environment are refreshed'() {
+        given:
+            Map<String, Object> micronautOnly = ['micronaut.only': 'a']
+            micronautContext.environment.addPropertySource(PropertySource.of('micronaut-only', micronautOnly))
+            micronautContext.environment.refreshAndDiff()
+            RefreshEventRecorder recorder = micronautContext.getBean(RefreshEventRecorder)
+        when:
+            micronautOnly['micronaut.only'] = 'b'
+            properties['micronaut.foo'] = 'b'
+            refresher.refresh()
+        then:
+            recorder.keys == ['micronaut.foo'] as Set
+            micronautContext.getProperty('micronaut.only', String).orElse(null) == 'b'
+    }
+
+    void 'key #key #description one of #changed'() {
+        expect:
+            MicronautEnvironmentRefresher.isChanged(key, changed as Set) == expected
+        where:
+            key                 | changed                  | expected
+            'micronaut.foo'     | ['micronaut.foo']        | true
+            'micronaut'         | ['micronaut.foo']        | true
+            'micronaut.foo.bar' | ['micronaut.foo']        | true
+            'micronaut.foobar'  | ['micronaut.foo']        | false
+            'micronaut.only'    | ['micronaut.foo', 'bar'] | false
+
+            description = expected ? 'matches' : 'does not match'
+    }
+
+    void 'events with the same simple name are ignored'() {
+        when:
+            properties['micronaut.foo'] = 'b'
+            springContext.publishEvent(new EnvironmentChangeEvent(this))
+        then:
+            micronautContext.getProperty('micronaut.foo', String).orElse(null) == 'a'
+    }
+
+    void 'refresher is registered only when enabled'() {
+        given:
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()
+            context.environment.activeProfiles = [MicronautGrailsApp.ENVIRONMENT_STRICT] as String[]
+            context.environment.propertySources.addFirst(new MapPropertySource('enabled', enabled))
+            context.register(MicronautGrailsConfiguration)
+        when:
+            context.refresh()
+        then:
+            context.getBeansOfType(MicronautEnvironmentRefresher).size() == expected
+        cleanup:
+            context.close()
+        where:
+            enabled                                                    | expected
+            [:]                                                        | 0
+            [(MicronautEnvironmentRefresher.ENABLED_PROPERTY): 'true'] | 1
+    }
+
+}
+
+@CompileDynamic
+class EnvironmentChangeEvent extends ApplicationEvent {
+
+    EnvironmentChangeEvent(Object source) {
+        super(source)
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class RefreshEventRecorder implements ApplicationEventListener<RefreshEvent> {
+
+    Set<String> keys = [] as Set
+
+    @Override
+    void onApplicationEvent(RefreshEvent event) {
+        keys.addAll(event.source.keySet())
+    }
+
+}
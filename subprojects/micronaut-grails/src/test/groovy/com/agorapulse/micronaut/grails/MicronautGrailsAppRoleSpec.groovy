@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import com.agorapulse.micronaut.amazon.awssdk.sns.SimpleNotificationService
+import com.agorapulse.micronaut.amazon.awssdk.sqs.SimpleQueueService
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+/**
+ * Tests for loading the Micronaut beans of the selected role.
+ */
+@CompileDynamic
+class MicronautGrailsAppRoleSpec extends Specification {
+
+    @AutoCleanup ApplicationContext context
+
+    void 'only the beans of the selected role are loaded'() {
+        when:
+            context = start('notifications')
+        then:
+            hasDefinition(SimpleNotificationService)
+            !hasDefinition(SimpleQueueService)
+            hasDefinition(MicronautContextHolder)
+            context.environment.activeNames.contains('notifications')
+    }
+
+    void 'all the beans are loaded without role'() {
+        when:
+            context = start(null)
+        then:
+            hasDefinition(SimpleNotificationService)
+            hasDefinition(SimpleQueueService)
+    }
+
+    private boolean hasDefinition(Class<?> type) {
+        return context.beanDefinitionReferences.any { it.name.startsWith(type.package.name + '.') }
+    }
+
+    private static ApplicationContext start(String role) {
+        MicronautGrailsAutoConfiguration configuration = new RoleConfiguration()
+        ApplicationContext context = new MicronautGrailsApp.MicronautGrailsAppContext(
+            new MicronautGrailsApp.MicronautGrailsAppContextConfiguration(
+                MicronautGrailsAppRoleSpec.classLoader,
+                configuration,
+                null,
+                role
+            )
+        )
+        context.registerSingleton(MicronautGrailsAutoConfiguration, configuration)
+        return context.start()
+    }
+
+}
+
+@CompileDynamic
+class RoleConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    Map<String, BeanExposure> getRoles() {
+        return [
+            notifications: BeanExposure.builder().includePackage('com.agorapulse.micronaut.amazon.awssdk.sns').build(),
+            queues: BeanExposure.builder().includePackage('com.agorapulse.micronaut.amazon.awssdk.sqs').build(),
+        ]
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+/**
+ * Tests for diagnostics report.
+ */
+@CompileDynamic
+class MicronautGrailsDiagnosticsSpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.run()
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    void setup() {
+        micronautContext.registerSingleton(new DiagnosticsPayload(new byte[10_000]))
+        springContext.beanFactory.registerSingleton('micronautContextHolder', new MicronautContextHolder(micronautContext))
+        springContext.beanFactory.registerSingleton('payload', new DiagnosticsPayload(new byte[20_000]))
+        springContext.refresh()
+    }
+
+    void 'report every context'() {
+        when:
+            List<MicronautGrailsDiagnostics.ContextReport> reports = new MicronautGrailsDiagnostics(springContext).report()
+        then:
+            reports*.name == ['micronaut', 'spring']
+
+        when:
+            MicronautGrailsDiagnostics.ContextReport micronaut = reports.first()
+            MicronautGrailsDiagnostics.ContextReport spring = reports.last()
+        then:
+            micronaut.singletons > 0
+            micronaut.definitions > 0
+            micronaut.estimatedBytes >= 10_000
+            micronaut.types.find { it.type == DiagnosticsPayload.name }.estimatedBytes >= 10_000
+
+            spring.singletons > 0
+            spring.estimatedBytes >= 20_000
+            spring.types.first().type == DiagnosticsPayload.name
+            spring.types.first().count == 1
+    }
+
+    void 'shared objects are counted once'() {
+        given:
+            byte[] shared = new byte[1_000]
+            ObjectSizeEstimator estimator = new ObjectSizeEstimator([], 1000)
+        expect:
+            estimator.estimate(new DiagnosticsPayload(shared)) >= 1_000
+            estimator.estimate(new DiagnosticsPayload(shared)) < 1_000
+    }
+
+}
+
+@CompileDynamic
+class DiagnosticsPayload {
+
+    final byte[] data
+
+    DiagnosticsPayload(byte[] data) {
+        this.data = data
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.BeanRegistration
+import io.micronaut.context.DefaultBeanContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.context.event.ApplicationEventListener
+import io.micronaut.context.event.ShutdownEvent
+import io.micronaut.inject.qualifiers.Qualifiers
+import spock.lang.Specification
+
+import javax.annotation.PreDestroy
+import javax.inject.Named
+import javax.inject.Singleton
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+
+/**
+ * Tests for shutdown coordinator.
+ */
+@CompileDynamic
+class MicronautShutdownCoordinatorSpec extends Specification {
+
+    ApplicationContext micronautContext = ApplicationContext.run()
+
+    void setup() {
+        ShutdownLog.EVENTS.clear()
+    }
+
+    void cleanup() {
+        if (micronautContext.running) {
+            micronautContext.close()
+        }
+    }
+
+    void 'dependents are destroyed before their dependencies'() {
+        given:
+            micronautContext.getBean(ShutdownDao)
+        when:
+            new MicronautShutdownCoordinator(micronautContext, Duration.ofSeconds(10)).shutdown()
+        then:
+            !micronautContext.running
+            ShutdownLog.EVENTS.count('dao') == 1
+            ShutdownLog.EVENTS.count('database') == 1
+            ShutdownLog.EVENTS.indexOf('dao') < ShutdownLog.EVENTS.indexOf('database')
+    }
+
+    void 'every qualified singleton is destroyed exactly once'() {
+        given:
+            micronautContext.getBean(ShutdownChannel, Qualifiers.byName('first'))
+            micronautContext.getBean(ShutdownChannel, Qualifiers.byName('second'))
+        when:
+            new MicronautShutdownCoordinator(micronautContext, Duration.ofSeconds(10)).shutdown()
+        then:
+            ShutdownLog.EVENTS.count('channel-first') == 1
+            ShutdownLog.EVENTS.count('channel-second') == 1
+    }
+
+    void 'shutdown listeners see their dependencies alive'() {
+        given:
+            micronautContext.getBean(ShutdownReporter)
+        when:
+            new MicronautShutdownCoordinator(micronautContext, Duration.ofSeconds(10)).shutdown()
+        then:
+            ShutdownLog.EVENTS.contains('shutdown-event-auditor-open')
+            ShutdownLog.EVENTS.indexOf('shutdown-event-auditor-open') < ShutdownLog.EVENTS.indexOf('auditor')
+    }
+
+    void 'submitted tasks finish before the singletons are destroyed'() {
+        given:
+            micronautContext.getBean(ShutdownWorker).submit()
+        when:
+            new MicronautShutdownCoordinator(micronautContext, Duration.ofSeconds(10)).shutdown()
+        then:
+            ShutdownLog.EVENTS.contains('io-task')
+            ShutdownLog.EVENTS.indexOf('io-task') < ShutdownLog.EVENTS.indexOf('database')
+    }
+
+    void 'shutdown is abandoned when the context does not close in time'() {
+        given:
+            ApplicationContext slowContext = ApplicationContext.run('shutdown.slow': true)
+            slowContext.getBean(SlowShutdownListener)
+            long started = System.currentTimeMillis()
+        when:
+            new MicronautShutdownCoordinator(slowContext, Duration.ofMillis(100)).shutdown()
+        then:
+            System.currentTimeMillis() - started < SlowShutdownListener.SLEEP_MILLIS
+    }
+
+    void 'beans still closing are found in the stack trace of the closing thread'() {
+        given:
+            StackTraceElement[] stackTrace = [
+                new StackTraceElement(Thread.name, 'sleep', 'Thread.java', 1),
+                new StackTraceElement(ShutdownAuditor.name, 'close', 'ShutdownAuditor.groovy', 1),
+                new StackTraceElement(ShutdownDao.name + '$_close_closure1', 'doCall', 'ShutdownDao.groovy', 1),
+                new StackTraceElement(DefaultBeanContext.name, 'close', 'DefaultBeanContext.java', 1),
+            ] as StackTraceElement[]
+        expect:
+            MicronautShutdownCoordinator.findClosingBeans(stackTrace, [ShutdownDatabase, ShutdownDao, ShutdownAuditor]) == [ShutdownAuditor.name, ShutdownDao.name]
+    }
+
+    void 'micronaut #version #description individual singleton destruction'() {
+        expect:
+            SingletonRegistrations.isSupported(version) == supported
+        where:
+            version | supported
+            null    | true
+            '1.3.7' | true
+            '2.5.0' | true
+            '3.0.0' | false
+            '4.1.2' | false
+
+            description = supported ? 'supports' : 'does not support'
+    }
+
+    void 'singletons are left to the context in unsupported version of Micronaut'() {
+        given:
+            micronautContext.getBean(ShutdownDatabase)
+            BeanRegistration<?> registration = micronautContext.getActiveBeanRegistrations(ShutdownDatabase).first()
+        expect:
+            !SingletonRegistrations.destroy(micronautContext, registration, '4.0.0')
+            micronautContext.getActiveBeanRegistrations(ShutdownDatabase).size() == 1
+            !ShutdownLog.EVENTS.contains('database')
+        when:
+            micronautContext.close()
+        then:
+            ShutdownLog.EVENTS.count('database') == 1
+    }
+
+    void 'singletons are destroyed individually in supported version of Micronaut'() {
+        given:
+            micronautContext.getBean(ShutdownDatabase)
+            BeanRegistration<?> registration = micronautContext.getActiveBeanRegistrations(ShutdownDatabase).first()
+        expect:
+            SingletonRegistrations.destroy(micronautContext, registration, '1.3.7')
+            micronautContext.getActiveBeanRegistrations(ShutdownDatabase).empty
+            ShutdownLog.EVENTS.count('database') == 1
+    }
+
+    void 'beans without dependents are destroyed in the same phase'() {
+        given:
+            micronautContext.getBean(ShutdownDao)
+            micronautContext.getBean(ShutdownChannel, Qualifiers.byName('first'))
+            List<?> live = new ArrayList<>(micronautContext.getActiveBeanRegistrations(Object))
+            List<?> candidates = live.findAll {
+                it.bean instanceof ShutdownDao || it.bean instanceof ShutdownDatabase || it.bean instanceof ShutdownChannel
+            }
+        when:
+            List<?> phase = MicronautShutdownCoordinator.nextPhase(candidates, live)
+        then:
+            phase*.bean*.class as Set == [ShutdownDao, FirstShutdownChannel] as Set
+    }
+
+}
+
+@CompileDynamic
+class ShutdownLog {
+
+    static final List<String> EVENTS = new CopyOnWriteArrayList<>()
+
+}
+
+@Singleton
+@CompileDynamic
+class ShutdownDatabase {
+
+    @PreDestroy
+    void close() {
+        ShutdownLog.EVENTS << 'database'
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class ShutdownDao {
+
+    final ShutdownDatabase database
+
+    ShutdownDao(ShutdownDatabase database) {
+        this.database = database
+    }
+
+    @PreDestroy
+    void close() {
+        ShutdownLog.EVENTS << 'dao'
+    }
+
+}
+
+@CompileDynamic
+interface ShutdownChannel { }
+
+@Singleton
+@Named('first')
+@CompileDynamic
+class FirstShutdownChannel implements ShutdownChannel {
+
+    @PreDestroy
+    void close() {
+        ShutdownLog.EVENTS << 'channel-first'
+    }
+
+}
+
+@Singleton
+@Named('second')
+@CompileDynamic
+class SecondShutdownChannel implements ShutdownChannel {
+
+    @PreDestroy
+    void close() {
+        ShutdownLog.EVENTS << 'channel-second'
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class ShutdownAuditor {
+
+    boolean closed
+
+    @PreDestroy
+    void close() {
+        closed = true
+        ShutdownLog.EVENTS << 'auditor'
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class ShutdownReporter implements ApplicationEventListener<ShutdownEvent> {
+
+    final ShutdownAuditor auditor
+
+    ShutdownReporter(ShutdownAuditor auditor) {
+        this.auditor = auditor
+    }
+
+    @Override
+    void onApplicationEvent(ShutdownEvent event) {
+        ShutdownLog.EVENTS << "shutdown-event-auditor-${auditor.closed ? 'closed' : 'open'}".toString()
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+class ShutdownWorker {
+
+    final ShutdownDatabase database
+    final ExecutorService executor
+
+    ShutdownWorker(ShutdownDatabase database, @Named('io') ExecutorService executor) {
+        this.database = database
+        this.executor = executor
+    }
+
+    void submit() {
+        executor.submit {
+            Thread.sleep(50)
+            ShutdownLog.EVENTS << 'io-task'
+        }
+    }
+
+}
+
+@Singleton
+@CompileDynamic
+@Requires(property = 'shutdown.slow')
+class SlowShutdownListener implements ApplicationEventListener<ShutdownEvent> {
+
+    static final long SLEEP_MILLIS = 2000
+
+    @Override
+    void onApplicationEvent(ShutdownEvent event) {
+        // nothing to do, the listeners are destroyed by the context
+    }
+
+    @PreDestroy
+    void close() {
+        Thread.sleep(SLEEP_MILLIS)
+    }
+
+}
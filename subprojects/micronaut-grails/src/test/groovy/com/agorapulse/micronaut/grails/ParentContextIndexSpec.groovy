@@ -0,0 +1,89 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import org.springframework.beans.factory.NoSuchBeanDefinitionException
+import org.springframework.context.ConfigurableApplicationContext
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.Specification
+
+/**
+ * Tests for parent context index.
+ */
+@CompileDynamic
+class ParentContextIndexSpec extends Specification {
+
+    GenericApplicationContext parent = new GenericApplicationContext()
+    ParentContextIndex index
+
+    void setup() {
+        parent.beanFactory.registerSingleton('foo', 'Foo')
+        parent.refresh()
+        index = new ParentContextIndex(parent)
+    }
+
+    void cleanup() {
+        parent.close()
+    }
+
+    void 'type lookups are cached'() {
+        given:
+            ConfigurableApplicationContext context = index.context
+        expect:
+            context.getBeanNamesForType(String) == ['foo'] as String[]
+            context.beanFactory.getBeanNamesForType(String) == ['foo'] as String[]
+            index.lookupCount == 2
+            index.hitCount == 1
+    }
+
+    void 'misses are cached until new bean is registered'() {
+        given:
+            ConfigurableApplicationContext context = index.context
+        expect:
+            !context.containsBean('bar')
+            !context.containsBean('bar')
+            index.hitCount == 1
+
+        when:
+            context.getBean(Integer)
+        then:
+            thrown(NoSuchBeanDefinitionException)
+
+        when:
+            context.getBean(Integer)
+        then:
+            thrown(NoSuchBeanDefinitionException)
+            index.hitCount == 2
+
+        when:
+            context.beanFactory.registerSingleton('bar', 42)
+        then:
+            context.containsBean('bar')
+            context.getBean(Integer) == 42
+            context.getBeanNamesForType(Integer) == ['bar'] as String[]
+    }
+
+    void 'proxy is equal only to itself'() {
+        expect:
+            index.context == index.context
+            index.context != parent
+            index.context.beanFactory.is(index.context.beanFactory)
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import org.springframework.core.env.MapPropertySource
+import org.springframework.core.env.StandardEnvironment
+import spock.lang.Specification
+import spock.lang.TempDir
+
+/**
+ * Tests for property access audit.
+ */
+@CompileDynamic
+class PropertyAccessAuditSpec extends Specification {
+
+    @TempDir File tmp
+
+    void 'translations are read from the written report'() {
+        given:
+            File report = new File(tmp, 'audit/properties.json')
+            PropertyAccessAudit audit = new PropertyAccessAudit(report)
+        when:
+            audit.record('redis.port', 'grails.redis.port')
+            audit.record('redis.port', 'grails.redis.port')
+            audit.record('redis.host', 'redis.host')
+            audit.record('redis.timeout', null)
+            audit.write()
+        then:
+            report.exists()
+            report.text.contains('"count" : 2')
+            PropertyAccessAudit.readTranslations(report) == ['redis.port': 'grails.redis.port']
+    }
+
+    void 'replayed translations do not take precedence over the direct names'() {
+        given:
+            File report = new File(tmp, 'audit/properties.json')
+            PropertyAccessAudit audit = new PropertyAccessAudit(report)
+            audit.record('redis.host', 'grails.redis.host')
+            audit.record('redis.port', 'grails.redis.port')
+            audit.write()
+
+            StandardEnvironment springEnvironment = new StandardEnvironment()
+            springEnvironment.propertySources.addFirst(new MapPropertySource('test', [
+                'redis.host': 'direct',
+                'grails.redis.host': 'translated',
+                'grails.redis.port': '6379',
+                (PropertyAccessAudit.FILE_PROPERTY): report.absolutePath,
+                (PropertyAccessAudit.REPLAY_PROPERTY): 'true',
+            ]))
+        when:
+            GrailsPropertyTranslatingEnvironment environment = new GrailsPropertyTranslatingEnvironment(
+                springEnvironment,
+                PropertyTranslatingCustomizer.builder().replacePrefix('redis', 'grails.redis').build(),
+                Collections.emptyList()
+            )
+        then:
+            environment.getProperty('redis.host', String) == Optional.of('direct')
+            environment.getProperty('redis.port', Integer) == Optional.of(6379)
+            environment.containsProperty('redis.host')
+    }
+
+    void 'missing report means no translations'() {
+        expect:
+            PropertyAccessAudit.readTranslations(new File(tmp, 'missing.json')).isEmpty()
+    }
+
+}
@@ -72,4 +72,19 @@ class PropertyTranslatingCustomizerSpec extends Specification {
                 ['grails.s-url', 'grails.micronaut.s-url', 'grails.sUrl', 'grails.micronaut.sUrl'] as Set<String>
     }
 
+    void 'original names are reverted from the alternative names'() {
+        when:
+            GrailsPropertyTranslatingCustomizer customizer = PropertyTranslatingCustomizer
+                .grails()
+                .ignore('redis.timeout')
+                .build() as GrailsPropertyTranslatingCustomizer
+
+        then:
+            customizer.getOriginalNames(null).empty
+            customizer.getOriginalNames('redis.port').empty
+            customizer.getOriginalNames('grails.redis.timeout') == ['micronaut.redis.timeout'] as Set<String>
+            customizer.getOriginalNames('grails.redis.port') == ['micronaut.redis.port', 'redis.port'] as Set<String>
+            customizer.getOriginalNames('grails.micronaut.server.url') == ['micronaut.micronaut.server.url', 'micronaut.server.url'] as Set<String>
+    }
+
 }
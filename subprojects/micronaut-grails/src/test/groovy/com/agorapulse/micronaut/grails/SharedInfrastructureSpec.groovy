@@ -0,0 +1,99 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import groovy.transform.CompileDynamic
+import groovy.transform.CompileStatic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.scheduling.TaskExecutors
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.context.annotation.Configuration
+import org.springframework.scheduling.annotation.EnableScheduling
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+
+/**
+ * Tests for sharing the infrastructure beans.
+ */
+@CompileDynamic
+class SharedInfrastructureSpec extends Specification {
+
+    @AutoCleanup ApplicationContext micronautContext = ApplicationContext.run()
+    @AutoCleanup AnnotationConfigApplicationContext springContext = new AnnotationConfigApplicationContext()
+
+    void 'shared beans are registered and spring boot backs off'() {
+        when:
+            start(SharedInfrastructure.Owner.MICRONAUT)
+        then:
+            springContext.getBean('jacksonObjectMapper').is(micronautContext.getBean(ObjectMapper))
+            springContext.getBeansOfType(ObjectMapper).keySet() == ['jacksonObjectMapper'] as Set
+
+            springContext.getBean('applicationTaskExecutor') instanceof ConcurrentTaskExecutor
+            springContext.getBean('applicationTaskExecutor').concurrentExecutor.is(executor(TaskExecutors.IO))
+            springContext.getBean('taskExecutor').is(springContext.getBean('applicationTaskExecutor'))
+            springContext.getBeansOfType(ThreadPoolTaskExecutor).isEmpty()
+
+            springContext.getBean('taskScheduler') instanceof ConcurrentTaskScheduler
+            springContext.getBean('taskScheduler').concurrentExecutor.is(executor(TaskExecutors.SCHEDULED))
+            springContext.getBeansOfType(ThreadPoolTaskScheduler).isEmpty()
+    }
+
+    void 'executors owned by #owner are shut down with the spring context: #shutdown'() {
+        given:
+            start(owner)
+            ExecutorService io = executor(TaskExecutors.IO)
+            ExecutorService scheduled = executor(TaskExecutors.SCHEDULED)
+        when:
+            springContext.close()
+        then:
+            io.shutdown == shutdown
+            scheduled.shutdown == shutdown
+        where:
+            owner                                | shutdown
+            SharedInfrastructure.Owner.MICRONAUT | false
+            SharedInfrastructure.Owner.SPRING    | true
+    }
+
+    private ExecutorService executor(String name) {
+        return micronautContext.getBean(ExecutorService, Qualifiers.byName(name))
+    }
+
+    private void start(SharedInfrastructure.Owner owner) {
+        MicronautGrailsApp.shareInfrastructure(micronautContext, springContext, SharedInfrastructure.values().toList(), owner)
+        springContext.register(SchedulingConfig, JacksonAutoConfiguration, TaskExecutionAutoConfiguration, TaskSchedulingAutoConfiguration)
+        springContext.refresh()
+    }
+
+}
+
+@CompileStatic
+@Configuration
+@EnableScheduling
+class SchedulingConfig {
+}
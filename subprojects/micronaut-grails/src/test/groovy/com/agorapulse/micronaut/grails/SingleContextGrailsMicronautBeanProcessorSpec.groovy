@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import groovy.transform.CompileStatic
+import io.micronaut.context.env.Environment
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.ApplicationContext
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.TestPropertySource
+import spock.lang.Specification
+
+/**
+ * Tests for micronaut Spring bean processor reusing the parent Micronaut context.
+ */
+@CompileDynamic
+@ContextConfiguration(classes = [GrailsSingleContextConfig])
+@TestPropertySource(
+    locations = 'classpath:com/agorapulse/micronaut/grails/GrailsMicronautBeanProcessorSpec.properties',
+    properties = ['unrelated.value = direct', 'grails.other.value = translated']
+)
+class SingleContextGrailsMicronautBeanProcessorSpec extends Specification {
+
+    @Autowired
+    ApplicationContext applicationContext
+
+    @Autowired
+    MicronautContextHolder holder
+
+    void 'imported beans are created by the parent context'() {
+        expect:
+            applicationContext.getBean('widget').is(holder.context.getBean(Widget))
+    }
+
+    void 'imported beans read the translated properties'() {
+        when:
+            CustomBean bean = applicationContext.getBean(CustomBean)
+        then:
+            bean.redisHost == LegacyGrailsMicronautBeanProcessorSpec.REDIS_HOST
+            bean.redisPort == LegacyGrailsMicronautBeanProcessorSpec.REDIS_PORT
+            bean.redisTimeout == LegacyGrailsMicronautBeanProcessorSpec.REDIS_TIMEOUT
+    }
+
+    void 'only the properties read by the imported beans are added to the parent environment'() {
+        when:
+            Environment environment = holder.context.environment
+        then:
+            environment.getProperty('redis.host', String) == Optional.of(LegacyGrailsMicronautBeanProcessorSpec.REDIS_HOST)
+            environment.getProperty('redis.port', Integer) == Optional.of(LegacyGrailsMicronautBeanProcessorSpec.REDIS_PORT)
+            !environment.containsProperty('unrelated.value')
+            !environment.containsProperty('other.value')
+    }
+
+    void 'migration analyzer reports the translated properties of the parent environment'() {
+        given:
+            LegacyMigrationAnalyzer analyzer = new LegacyMigrationAnalyzer()
+            analyzer.applicationContext = applicationContext
+        when:
+            Map<String, Object> report = analyzer.analyze()
+        then:
+            report.recommendedMode == CompatibilityMode.LEGACY.name()
+            report.properties.size() == 1
+            report.properties[0].name == 'redis.host'
+            report.properties[0].resolvedName == 'grails.redis.host'
+            report.properties[0].translatedLookupNanos >= 0
+            report.properties[0].springLookupNanos >= 0
+    }
+
+    void 'prefixes are collected from the injected properties'() {
+        when:
+            Set<String> prefixes = GrailsPropertyTranslatingPropertySource.findPrefixes(
+                holder.context,
+                [new TypeAndQualifier(CustomBean, null), new TypeAndQualifier(Widget, null)]
+            )
+        then:
+            prefixes == ['redis.host', 'redis.port', 'redis.timeout'] as Set
+    }
+
+}
+
+@CompileDynamic
+class SingleContextAutoConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    boolean isLegacySingleContext() {
+        return true
+    }
+
+}
+
+@CompileStatic
+@Configuration
+class GrailsSingleContextConfig {
+
+    @Bean
+    static MicronautContextHolder micronautContextHolder() {
+        return new MicronautContextHolder(
+            io.micronaut.context.ApplicationContext.build()
+                .singletons(new SingleContextAutoConfiguration())
+                .start()
+        )
+    }
+
+    @Bean
+    GrailsMicronautBeanProcessor singleContextProcessor() {
+        return GrailsMicronautBeanProcessor
+            .builder()
+            .addByType(Widget)
+            .addByStereotype('custom', SomeCustomScope)
+            .build()
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.scheduling.TaskExecutors
+import spock.lang.AutoCleanup
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.ScheduledExecutorService
+
+/**
+ * Tests for virtual threads executor listener.
+ */
+@CompileDynamic
+class VirtualThreadsExecutorListenerSpec extends Specification {
+
+    @AutoCleanup ApplicationContext context = ApplicationContext.build()
+        .singletons(new VirtualThreadsAutoConfiguration())
+        .start()
+
+    @IgnoreIf({ VirtualThreads.supported })
+    void 'platform threads are kept if virtual threads are not supported'() {
+        when:
+            ExecutorService executor = context.getBean(ExecutorService, Qualifiers.byName(TaskExecutors.IO))
+        then:
+            !executor.shutdown
+            !isVirtual(currentThread(executor))
+    }
+
+    @IgnoreIf({ !VirtualThreads.supported })
+    void 'io executor uses virtual threads'() {
+        when:
+            ExecutorService executor = context.getBean(ExecutorService, Qualifiers.byName(TaskExecutors.IO))
+        then:
+            isVirtual(currentThread(executor))
+    }
+
+    void 'scheduled executor keeps platform threads'() {
+        when:
+            ScheduledExecutorService executor = context.getBean(ScheduledExecutorService, Qualifiers.byName(TaskExecutors.SCHEDULED))
+        then:
+            !isVirtual(currentThread(executor))
+    }
+
+    private static Thread currentThread(ExecutorService executor) {
+        return executor.submit({ Thread.currentThread() } as Callable<Thread>).get()
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        return Thread.methods.find { it.name == 'isVirtual' }?.invoke(thread) ?: false
+    }
+
+}
+
+@CompileDynamic
+class VirtualThreadsAutoConfiguration extends MicronautGrailsAutoConfiguration {
+
+    @Override
+    boolean isVirtualThreads() {
+        return true
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2020 Vladimir Orany.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agorapulse.micronaut.grails
+
+import groovy.transform.CompileDynamic
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer
+import org.springframework.context.support.GenericApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
+/**
+ * Tests for warm-up.
+ */
+@CompileDynamic
+class WarmUpSpec extends Specification {
+
+    @AutoCleanup GenericApplicationContext springContext = new GenericApplicationContext()
+
+    void 'tasks are executed and only the registered imported beans are created'() {
+        given:
+            AtomicInteger executed = new AtomicInteger()
+            AtomicInteger created = new AtomicInteger()
+            springContext.beanFactory.registerSingleton('task', { ctx -> executed.incrementAndGet() } as WarmUpTask)
+            springContext.beanFactory.registerSingleton('importer', MicronautBeanImporter.create()
+                .addByName('registeredBean', WarmedUpBean)
+                .addByName('missingBean', WarmedUpBean)
+            )
+            springContext.registerBean(
+                'registeredBean',
+                WarmedUpBean,
+                { -> created.incrementAndGet(); new WarmedUpBean() } as Supplier<WarmedUpBean>,
+                { definition -> definition.lazyInit = true } as BeanDefinitionCustomizer
+            )
+            springContext.refresh()
+        when:
+            new WarmUp(springContext, Duration.ofSeconds(10)).run()
+        then:
+            executed.get() == 1
+            created.get() == 1
+            noExceptionThrown()
+    }
+
+}
+
+@CompileDynamic
+class WarmedUpBean { }